@@ -0,0 +1,186 @@
+package cc.fss.vaadin.amqp.converter;
+
+import cc.fss.vaadin.amqp.model.NotificationMessage;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 通知消息的紧凑二进制转换器
+ * <p>
+ * 消息体按固定的字段顺序写出，不包含字段名和类型信息：一个字节的字段存在标记，
+ * 然后是各个字符串字段（变长整数表示的 UTF-8 字节数加上内容），最后是创建时间（UTC 秒数和纳秒数）。
+ * 格式版本写在 {@value #SCHEMA_VERSION_HEADER} 头中，读取时不支持的版本会被拒绝，
+ * 修改格式时应增加版本号并继续支持读取旧版本。
+ * </p>
+ * <p>
+ * 消息体超过 {@code compressionThreshold} 字节时用 gzip 压缩，并设置 {@code content-encoding} 为 {@code gzip}。
+ * </p>
+ */
+public class NotificationMessageBinaryConverter extends AbstractMessageConverter {
+
+    public static final String CONTENT_TYPE = "application/x-notification-message";
+
+    public static final String SCHEMA_VERSION_HEADER = "x-schema-version";
+
+    public static final int SCHEMA_VERSION = 1;
+
+    private static final String GZIP = "gzip";
+
+    private static final int ID = 1;
+    private static final int TITLE = 1 << 1;
+    private static final int MESSAGE = 1 << 2;
+    private static final int TYPE = 1 << 3;
+    private static final int USER_ID = 1 << 4;
+    private static final int CREATED_AT = 1 << 5;
+
+    private final int compressionThreshold;
+
+    /**
+     * @param compressionThreshold
+     *            超过这个字节数的消息体会被压缩，小于 0 时不压缩
+     */
+    public NotificationMessageBinaryConverter(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    protected Message createMessage(Object object, MessageProperties messageProperties) {
+        if (!(object instanceof NotificationMessage notificationMessage)) {
+            throw new MessageConversionException(
+                    "Cannot convert " + object.getClass().getName() + ", only NotificationMessage is supported");
+        }
+        try {
+            var body = encode(notificationMessage);
+            if (compressionThreshold >= 0 && body.length > compressionThreshold) {
+                body = gzip(body);
+                messageProperties.setContentEncoding(GZIP);
+            }
+            messageProperties.setContentType(CONTENT_TYPE);
+            messageProperties.setHeader(SCHEMA_VERSION_HEADER, SCHEMA_VERSION);
+            messageProperties.setContentLength(body.length);
+            return new Message(body, messageProperties);
+        } catch (IOException ex) {
+            throw new MessageConversionException("Failed to encode notification message", ex);
+        }
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        var properties = message.getMessageProperties();
+        Object version = properties.getHeader(SCHEMA_VERSION_HEADER);
+        if (!String.valueOf(SCHEMA_VERSION).equals(String.valueOf(version))) {
+            throw new MessageConversionException("Unsupported notification message schema version: " + version);
+        }
+        try {
+            var body = message.getBody();
+            if (GZIP.equals(properties.getContentEncoding())) {
+                body = gunzip(body);
+            }
+            return decode(body);
+        } catch (IOException ex) {
+            throw new MessageConversionException("Failed to decode notification message", ex);
+        }
+    }
+
+    static byte[] encode(NotificationMessage message) throws IOException {
+        var bytes = new ByteArrayOutputStream(128);
+        var out = new DataOutputStream(bytes);
+        var createdAt = message.getCreatedAt();
+        out.writeByte((message.getId() != null ? ID : 0) | (message.getTitle() != null ? TITLE : 0)
+                | (message.getMessage() != null ? MESSAGE : 0) | (message.getType() != null ? TYPE : 0)
+                | (message.getUserId() != null ? USER_ID : 0) | (createdAt != null ? CREATED_AT : 0));
+        writeString(out, message.getId());
+        writeString(out, message.getTitle());
+        writeString(out, message.getMessage());
+        writeString(out, message.getType());
+        writeString(out, message.getUserId());
+        if (createdAt != null) {
+            out.writeLong(createdAt.toEpochSecond(ZoneOffset.UTC));
+            writeVarInt(out, createdAt.getNano());
+        }
+        return bytes.toByteArray();
+    }
+
+    static NotificationMessage decode(byte[] body) throws IOException {
+        var in = new DataInputStream(new ByteArrayInputStream(body));
+        var fields = in.readUnsignedByte();
+        var message = new NotificationMessage();
+        message.setId(readString(in, fields, ID));
+        message.setTitle(readString(in, fields, TITLE));
+        message.setMessage(readString(in, fields, MESSAGE));
+        message.setType(readString(in, fields, TYPE));
+        message.setUserId(readString(in, fields, USER_ID));
+        message.setCreatedAt((fields & CREATED_AT) == 0 ? null
+                : LocalDateTime.ofEpochSecond(in.readLong(), readVarInt(in), ZoneOffset.UTC));
+        return message;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value != null) {
+            var bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in, int fields, int field) throws IOException {
+        if ((fields & field) == 0) {
+            return null;
+        }
+        var length = readVarInt(in);
+        if (length < 0 || length > in.available()) {
+            throw new MessageConversionException("Invalid string length " + length + " in notification message");
+        }
+        var bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        var value = 0;
+        // An int takes at most 5 bytes (5 × 7 bits)
+        for (var shift = 0; shift < 35; shift += 7) {
+            var b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new MessageConversionException("Malformed variable-length integer in notification message");
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        var out = new ByteArrayOutputStream(bytes.length / 2);
+        try (var gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return gzip.readAllBytes();
+        }
+    }
+}
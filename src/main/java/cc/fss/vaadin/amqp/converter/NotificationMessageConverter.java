@@ -0,0 +1,43 @@
+package cc.fss.vaadin.amqp.converter;
+
+import cc.fss.vaadin.amqp.model.NotificationMessage;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+/**
+ * 按 content type 选择转换器的消息转换器
+ * <p>
+ * 接收时按消息的 {@code content-type} 选择：{@link NotificationMessageBinaryConverter#CONTENT_TYPE} 的消息用二进制转换器，
+ * 其它消息（包括切换格式之前发出的 JSON 消息）用 JSON 转换器。
+ * 发送时，{@code binary} 为 {@code true} 则通知消息以二进制格式发送，其它对象总是以 JSON 发送。
+ * </p>
+ */
+public class NotificationMessageConverter extends ContentTypeDelegatingMessageConverter {
+
+    private final boolean binary;
+
+    /**
+     * @param jsonConverter
+     *            JSON 转换器，也用于没有注册转换器的 content type
+     * @param binaryConverter
+     *            通知消息的二进制转换器
+     * @param binary
+     *            是否以二进制格式发送通知消息
+     */
+    public NotificationMessageConverter(MessageConverter jsonConverter,
+            NotificationMessageBinaryConverter binaryConverter, boolean binary) {
+        super(jsonConverter);
+        addDelegate(NotificationMessageBinaryConverter.CONTENT_TYPE, binaryConverter);
+        this.binary = binary;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        if (binary && object instanceof NotificationMessage) {
+            messageProperties.setContentType(NotificationMessageBinaryConverter.CONTENT_TYPE);
+        }
+        return super.toMessage(object, messageProperties);
+    }
+}
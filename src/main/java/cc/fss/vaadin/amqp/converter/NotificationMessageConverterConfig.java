@@ -0,0 +1,38 @@
+package cc.fss.vaadin.amqp.converter;
+
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 通知消息转换器配置
+ * <p>
+ * 注册的 {@link NotificationMessageConverter} 是应用的主消息转换器，{@code RabbitTemplate} 和监听容器都使用它。
+ * {@code app.amqp.converter.format} 决定通知消息的发送格式（{@code json} 或 {@code binary}），
+ * 接收时两种格式都支持。默认发送 JSON，旧版本的消费者也能读取；
+ * 所有消费者都升级到能读取二进制格式的版本之后，再把它改为 {@code binary}，
+ * 否则滚动升级期间旧消费者无法转换二进制消息，消息会被拒绝并反复重新入队。
+ * 二进制消息体超过 {@code app.amqp.converter.compression-threshold} 时压缩。
+ * </p>
+ * <p>
+ * 这个配置放在 {@code amqp} 包中而不是 {@code config} 包中，因为它依赖 {@code amqp} 包中的类，
+ * 而 {@code amqp} 包已经依赖 {@code config} 包。
+ * </p>
+ */
+@Configuration
+public class NotificationMessageConverterConfig {
+
+    @Bean
+    @Primary
+    public MessageConverter notificationMessageConverter(
+            @Qualifier("jsonMessageConverter") MessageConverter jsonConverter,
+            @Value("${app.amqp.converter.format:json}") String format,
+            @Value("${app.amqp.converter.compression-threshold:1KB}") DataSize compressionThreshold) {
+        var binaryConverter = new NotificationMessageBinaryConverter((int) compressionThreshold.toBytes());
+        return new NotificationMessageConverter(jsonConverter, binaryConverter, "binary".equalsIgnoreCase(format));
+    }
+}
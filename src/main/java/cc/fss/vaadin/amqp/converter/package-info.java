@@ -0,0 +1,11 @@
+/**
+ * AMQP 消息转换器包
+ *
+ * 该包包含了通知消息的消息转换器：
+ * <ul>
+ *   <li>{@link cc.fss.vaadin.amqp.converter.NotificationMessageBinaryConverter} - 紧凑的二进制格式，可选 gzip 压缩</li>
+ *   <li>{@link cc.fss.vaadin.amqp.converter.NotificationMessageConverter} - 按 content type 选择转换器，兼容 JSON 消息</li>
+ *   <li>{@link cc.fss.vaadin.amqp.converter.NotificationMessageConverterConfig} - 转换器配置</li>
+ * </ul>
+ */
+package cc.fss.vaadin.amqp.converter;
@@ -0,0 +1,127 @@
+package cc.fss.vaadin.amqp.dedup;
+
+import cc.fss.vaadin.amqp.model.NotificationMessage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * 通知消息去重器
+ * 消费者重启或 nack 之后，broker 会重新投递同一条消息（相同的 {@code NotificationMessage.id}），这里把它们丢弃。
+ * <p>
+ * 先查内存中最近处理过的 ID（有界的 Caffeine 缓存，无锁读取），命中的消息直接丢弃，不访问数据库；
+ * 其余的 ID 每批用一条语句写入 {@link ProcessedMessageStore}，写入失败（已存在）的是其它实例或重启前处理过的消息。
+ * 数据库中的记录保留 {@code app.amqp.dedup.ttl}，由定时任务清理。
+ * </p>
+ * <p>
+ * 应在与消息处理相同的事务中调用，并且处理失败时异常要抛出事务之外：事务回滚时 ID 的记录也会回滚，
+ * 容器拒绝消息后重新投递的消息会被再次处理。吞掉异常的调用方会让失败的消息被记录为已处理。
+ * 因此 ID 也要在事务提交之后才放入内存缓存。没有 ID 的消息不去重。
+ * </p>
+ */
+@Component
+public class MessageDeduplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageDeduplicator.class);
+
+    private final ProcessedMessageStore processedMessageStore;
+
+    private final Clock clock;
+
+    private final Duration ttl;
+
+    private final Cache<String, Boolean> recentIds;
+
+    private final Counter droppedFromMemory;
+
+    private final Counter droppedFromDatabase;
+
+    public MessageDeduplicator(ProcessedMessageStore processedMessageStore, Clock clock,
+            @Value("${app.amqp.dedup.ttl:7d}") Duration ttl,
+            @Value("${app.amqp.dedup.recent-ids:100000}") long recentIds, MeterRegistry meterRegistry) {
+        this.processedMessageStore = processedMessageStore;
+        this.clock = clock;
+        this.ttl = ttl;
+        this.recentIds = Caffeine.newBuilder().maximumSize(recentIds).expireAfterWrite(ttl).build();
+        this.droppedFromMemory = Counter.builder("amqp.dedup.dropped")
+                .description("Redelivered messages that were dropped").tag("source", "memory")
+                .register(meterRegistry);
+        this.droppedFromDatabase = Counter.builder("amqp.dedup.dropped")
+                .description("Redelivered messages that were dropped").tag("source", "database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 返回没有处理过的消息，并把它们记录为已处理
+     * 同一批中 ID 相同的消息只保留第一条。
+     *
+     * @param messages
+     *            收到的消息
+     * @return 需要处理的消息，顺序不变
+     */
+    @Transactional
+    public List<NotificationMessage> dropDuplicates(List<NotificationMessage> messages) {
+        var unseen = new LinkedHashMap<String, NotificationMessage>();
+        for (var message : messages) {
+            var id = message.getId();
+            if (id != null && (recentIds.getIfPresent(id) != null || unseen.putIfAbsent(id, message) != null)) {
+                droppedFromMemory.increment();
+                logger.debug("Dropping duplicate notification message {}", id);
+            }
+        }
+        var claimed = processedMessageStore.claim(unseen.keySet(), clock.instant());
+        if (!unseen.isEmpty()) {
+            droppedFromDatabase.increment(unseen.size() - claimed.size());
+            afterCommit(() -> unseen.keySet().forEach(id -> recentIds.put(id, Boolean.TRUE)));
+        }
+        return messages.stream()
+                .filter(message -> message.getId() == null
+                        || claimed.contains(message.getId()) && unseen.get(message.getId()) == message)
+                .toList();
+    }
+
+    /**
+     * 消息是否已经处理过；没有处理过时把它记录为已处理
+     */
+    @Transactional
+    public boolean isDuplicate(NotificationMessage message) {
+        return dropDuplicates(List.of(message)).isEmpty();
+    }
+
+    /**
+     * 删除超过保留时间的记录
+     */
+    @Scheduled(fixedDelayString = "${app.amqp.dedup.cleanup-interval:1h}",
+            initialDelayString = "${app.amqp.dedup.cleanup-interval:1h}")
+    public void deleteExpired() {
+        var deleted = processedMessageStore.deleteProcessedBefore(clock.instant().minus(ttl));
+        logger.debug("Deleted {} expired processed message ids", deleted);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package cc.fss.vaadin.amqp.dedup;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 已处理消息 ID 的数据库表（{@code processed_message}）
+ * <p>
+ * {@link #claim(Collection, Instant)} 用一条语句（一次数据库往返）写入一批 ID，并返回其中第一次写入的 ID：
+ * PostgreSQL 上使用 {@code insert ... on conflict do nothing returning}，
+ * 其它数据库使用逐行带 {@code where not exists} 条件的批量 insert，按每行的更新数判断。
+ * 在调用方的事务中执行，事务回滚时写入的 ID 也会回滚。
+ * </p>
+ */
+@Component
+public class ProcessedMessageStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean postgreSQL;
+
+    public ProcessedMessageStore(DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.postgreSQL = "PostgreSQL".equals(
+                JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+    }
+
+    /**
+     * 记录这些 ID 已被处理
+     *
+     * @param messageIds
+     *            消息 ID，不能重复
+     * @param processedAt
+     *            处理时间
+     * @return 之前没有记录过的 ID
+     */
+    public Set<String> claim(Collection<String> messageIds, Instant processedAt) {
+        if (messageIds.isEmpty()) {
+            return Set.of();
+        }
+        var timestamp = Timestamp.from(processedAt);
+        if (postgreSQL) {
+            var sql = "insert into processed_message (message_id, processed_at) values "
+                    + String.join(", ", Collections.nCopies(messageIds.size(), "(?, ?)"))
+                    + " on conflict do nothing returning message_id";
+            var args = new ArrayList<>(messageIds.size() * 2);
+            messageIds.forEach(id -> {
+                args.add(id);
+                args.add(timestamp);
+            });
+            return new HashSet<>(jdbcTemplate.queryForList(sql, String.class, args.toArray()));
+        }
+        var ids = List.copyOf(messageIds);
+        var updated = jdbcTemplate.batchUpdate("insert into processed_message (message_id, processed_at) "
+                + "select cast(? as varchar(64)), cast(? as timestamp) "
+                + "where not exists (select 1 from processed_message where message_id = ?)",
+                ids.stream().map(id -> new Object[] { id, timestamp, id }).toList());
+        var claimed = new HashSet<String>();
+        for (var i = 0; i < ids.size(); i++) {
+            // SUCCESS_NO_INFO (-2) counts as claimed: processing a message twice is better than dropping it
+            if (updated[i] != 0) {
+                claimed.add(ids.get(i));
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * 删除处理时间早于 {@code before} 的记录
+     *
+     * @return 删除的记录数
+     */
+    public int deleteProcessedBefore(Instant before) {
+        return jdbcTemplate.update("delete from processed_message where processed_at < ?", Timestamp.from(before));
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * AMQP 消息去重包
+ *
+ * 该包包含了幂等消费所需的去重组件：
+ * <ul>
+ *   <li>{@link cc.fss.vaadin.amqp.dedup.MessageDeduplicator} - 丢弃已经处理过的消息</li>
+ *   <li>{@link cc.fss.vaadin.amqp.dedup.ProcessedMessageStore} - 已处理消息 ID 的数据库表</li>
+ * </ul>
+ */
+package cc.fss.vaadin.amqp.dedup;
@@ -1,74 +1,110 @@
 package cc.fss.vaadin.amqp.listener;
 
+import cc.fss.vaadin.amqp.dedup.MessageDeduplicator;
 import cc.fss.vaadin.amqp.model.NotificationMessage;
 import cc.fss.vaadin.config.AmqpConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Component
 public class NotificationMessageListener {
 
     private static final Logger logger = LoggerFactory.getLogger(NotificationMessageListener.class);
 
-    @RabbitListener(queues = AmqpConfig.NOTIFICATION_QUEUE)
+    private final MessageDeduplicator messageDeduplicator;
+
+    public NotificationMessageListener(MessageDeduplicator messageDeduplicator) {
+        this.messageDeduplicator = messageDeduplicator;
+    }
+
+    /**
+     * 逐条处理通知消息，{@code app.amqp.notification-listener.batch.enabled=false}（默认）时启动
+     * 重新投递的、已经处理过的消息会被丢弃（见 {@link MessageDeduplicator}）。
+     */
+    @RabbitListener(queues = AmqpConfig.NOTIFICATION_QUEUE,
+            containerFactory = AmqpConfig.NOTIFICATION_LISTENER_CONTAINER_FACTORY,
+            autoStartup = "#{!${app.amqp.notification-listener.batch.enabled:false}}")
+    @Transactional
     public void handleNotificationMessage(NotificationMessage notificationMessage) {
-        logger.info("Received notification message: {}", notificationMessage);
+        logger.debug("Received notification message: {}", notificationMessage);
+        if (messageDeduplicator.isDuplicate(notificationMessage)) {
+            return;
+        }
 
         // 在这里处理通知消息
         // 例如：发送邮件、推送通知、记录日志等
-        processNotificationMessage(notificationMessage);
+        processNotificationMessages(List.of(notificationMessage));
     }
 
-    private void processNotificationMessage(NotificationMessage notificationMessage) {
-        try {
-            switch (notificationMessage.getType()) {
-                case "INFO":
-                    handleInfoNotification(notificationMessage);
-                    break;
-                case "SUCCESS":
-                    handleSuccessNotification(notificationMessage);
-                    break;
-                case "WARNING":
-                    handleWarningNotification(notificationMessage);
-                    break;
-                case "ERROR":
-                    handleErrorNotification(notificationMessage);
-                    break;
-                default:
-                    logger.warn("Unknown notification type: {}", notificationMessage.getType());
+    /**
+     * 批量处理通知消息，{@code app.amqp.notification-listener.batch.enabled=true} 时启动
+     * 整批消息处理完后由容器用一次 multiple ack 确认；方法抛出异常时整批消息都会被拒绝。
+     * 批量的副作用每批执行一次，而不是每条消息一次：去重只查询内存，没有命中的 ID 用一条语句写入数据库；
+     * 消息按类型分组，每种类型的处理函数每批只调用一次，拿到这一批中该类型的全部消息。
+     */
+    @RabbitListener(queues = AmqpConfig.NOTIFICATION_QUEUE,
+            containerFactory = AmqpConfig.NOTIFICATION_BATCH_LISTENER_CONTAINER_FACTORY,
+            autoStartup = "${app.amqp.notification-listener.batch.enabled:false}")
+    @Transactional
+    public void handleNotificationMessages(List<NotificationMessage> received) {
+        logger.debug("Received a batch of {} notification messages", received.size());
+        processNotificationMessages(messageDeduplicator.dropDuplicates(received));
+    }
+
+    /**
+     * 按类型分组，把每种类型的消息一次交给对应的处理函数
+     * 处理函数的异常不在这里捕获：异常抛出监听方法后事务回滚，去重记录随之撤销，容器拒绝消息并重新入队，
+     * 重新投递时消息会被再次处理。批量模式下整批消息一起重新投递，已经处理过的其它类型也会再处理一次。
+     */
+    private void processNotificationMessages(List<NotificationMessage> notificationMessages) {
+        var byType = notificationMessages.stream()
+                .collect(Collectors.groupingBy(message -> String.valueOf(message.getType())));
+        byType.forEach((type, messages) -> {
+            switch (type) {
+                case "INFO" -> handleInfoNotifications(messages);
+                case "SUCCESS" -> handleSuccessNotifications(messages);
+                case "WARNING" -> handleWarningNotifications(messages);
+                case "ERROR" -> handleErrorNotifications(messages);
+                default -> logger.warn("Unknown notification type {} of {} messages", type, messages.size());
             }
-        } catch (Exception e) {
-            logger.error("Error processing notification message: {}", e.getMessage(), e);
-        }
+        });
     }
 
-    private void handleInfoNotification(NotificationMessage notificationMessage) {
-        logger.info("Processing info notification: {} - {}",
-                notificationMessage.getTitle(), notificationMessage.getMessage());
+    private void handleInfoNotifications(List<NotificationMessage> notificationMessages) {
+        logger.info("Processing {} info notifications: {}", notificationMessages.size(),
+                titles(notificationMessages));
         // 实现信息通知的处理逻辑
-        // 例如：记录到日志、发送邮件等
+        // 例如：一次写入所有通知记录、合并成一封摘要邮件等
     }
 
-    private void handleSuccessNotification(NotificationMessage notificationMessage) {
-        logger.info("Processing success notification: {} - {}",
-                notificationMessage.getTitle(), notificationMessage.getMessage());
+    private void handleSuccessNotifications(List<NotificationMessage> notificationMessages) {
+        logger.info("Processing {} success notifications: {}", notificationMessages.size(),
+                titles(notificationMessages));
         // 实现成功通知的处理逻辑
-        // 例如：发送成功邮件、更新用户状态等
+        // 例如：一次批量更新用户状态等
     }
 
-    private void handleWarningNotification(NotificationMessage notificationMessage) {
-        logger.warn("Processing warning notification: {} - {}",
-                notificationMessage.getTitle(), notificationMessage.getMessage());
+    private void handleWarningNotifications(List<NotificationMessage> notificationMessages) {
+        logger.warn("Processing {} warning notifications: {}", notificationMessages.size(),
+                titles(notificationMessages));
         // 实现警告通知的处理逻辑
-        // 例如：发送警告邮件、记录警告日志等
+        // 例如：合并发送警告邮件等
     }
 
-    private void handleErrorNotification(NotificationMessage notificationMessage) {
-        logger.error("Processing error notification: {} - {}",
-                notificationMessage.getTitle(), notificationMessage.getMessage());
+    private void handleErrorNotifications(List<NotificationMessage> notificationMessages) {
+        logger.error("Processing {} error notifications: {}", notificationMessages.size(),
+                titles(notificationMessages));
         // 实现错误通知的处理逻辑
-        // 例如：发送错误邮件、记录错误日志、触发告警等
+        // 例如：一次触发包含所有错误的告警等
+    }
+
+    private static List<String> titles(List<NotificationMessage> notificationMessages) {
+        return notificationMessages.stream().map(NotificationMessage::getTitle).toList();
     }
 }
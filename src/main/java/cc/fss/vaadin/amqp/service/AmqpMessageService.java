@@ -1,40 +1,36 @@
 package cc.fss.vaadin.amqp.service;
 
 import cc.fss.vaadin.amqp.model.NotificationMessage;
-import cc.fss.vaadin.config.AmqpConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class AmqpMessageService {
 
     private static final Logger logger = LoggerFactory.getLogger(AmqpMessageService.class);
 
-    private final RabbitTemplate rabbitTemplate;
+    private final NotificationPublisher notificationPublisher;
 
-    public AmqpMessageService(RabbitTemplate rabbitTemplate) {
-        this.rabbitTemplate = rabbitTemplate;
+    public AmqpMessageService(NotificationPublisher notificationPublisher) {
+        this.notificationPublisher = notificationPublisher;
     }
 
-    public void sendNotificationMessage(NotificationMessage notificationMessage) {
-        try {
-            rabbitTemplate.convertAndSend(
-                    AmqpConfig.NOTIFICATION_EXCHANGE,
-                    AmqpConfig.NOTIFICATION_ROUTING_KEY,
-                    notificationMessage
-            );
-            logger.info("Notification message sent: {}", notificationMessage);
-        } catch (Exception e) {
-            logger.error("Error sending notification message: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to send notification message", e);
-        }
+    /**
+     * 异步发送通知消息
+     * 消息交给 {@link NotificationPublisher} 批量发送，调用方不会被网络 I/O 阻塞。
+     *
+     * @return 在 broker 确认收到消息后完成的 future，发送失败时以异常完成
+     */
+    public CompletableFuture<Void> sendNotificationMessage(NotificationMessage notificationMessage) {
+        logger.debug("Queueing notification message: {}", notificationMessage);
+        return notificationPublisher.publish(notificationMessage);
     }
 
-    public void sendInfoNotification(String title, String message, String userId) {
+    public CompletableFuture<Void> sendInfoNotification(String title, String message, String userId) {
         NotificationMessage notificationMessage = new NotificationMessage(
                 UUID.randomUUID().toString(),
                 title,
@@ -42,10 +38,10 @@ public class AmqpMessageService {
                 "INFO",
                 userId
         );
-        sendNotificationMessage(notificationMessage);
+        return sendNotificationMessage(notificationMessage);
     }
 
-    public void sendSuccessNotification(String title, String message, String userId) {
+    public CompletableFuture<Void> sendSuccessNotification(String title, String message, String userId) {
         NotificationMessage notificationMessage = new NotificationMessage(
                 UUID.randomUUID().toString(),
                 title,
@@ -53,10 +49,10 @@ public class AmqpMessageService {
                 "SUCCESS",
                 userId
         );
-        sendNotificationMessage(notificationMessage);
+        return sendNotificationMessage(notificationMessage);
     }
 
-    public void sendWarningNotification(String title, String message, String userId) {
+    public CompletableFuture<Void> sendWarningNotification(String title, String message, String userId) {
         NotificationMessage notificationMessage = new NotificationMessage(
                 UUID.randomUUID().toString(),
                 title,
@@ -64,10 +60,10 @@ public class AmqpMessageService {
                 "WARNING",
                 userId
         );
-        sendNotificationMessage(notificationMessage);
+        return sendNotificationMessage(notificationMessage);
     }
 
-    public void sendErrorNotification(String title, String message, String userId) {
+    public CompletableFuture<Void> sendErrorNotification(String title, String message, String userId) {
         NotificationMessage notificationMessage = new NotificationMessage(
                 UUID.randomUUID().toString(),
                 title,
@@ -75,6 +71,6 @@ public class AmqpMessageService {
                 "ERROR",
                 userId
         );
-        sendNotificationMessage(notificationMessage);
+        return sendNotificationMessage(notificationMessage);
     }
 }
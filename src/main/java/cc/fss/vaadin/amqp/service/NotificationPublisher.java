@@ -0,0 +1,252 @@
+package cc.fss.vaadin.amqp.service;
+
+import cc.fss.vaadin.amqp.model.NotificationMessage;
+import cc.fss.vaadin.config.AmqpConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 通知消息的批量异步发布器
+ * <p>
+ * 调用方只把消息放入有界的内存队列，立即返回一个 {@link CompletableFuture}，不等待任何网络 I/O。
+ * 专用的发布线程从队列中一次取出最多 {@code batch-size} 条消息，在同一个（缓存的）channel 上连续发送，
+ * 然后继续处理下一批，不等待确认。
+ * </p>
+ * <p>
+ * 每条消息都带有 {@link CorrelationData}，broker 的 publisher confirm 异步到达后完成对应的 future：
+ * ack 时正常完成；nack、无法路由被退回（模板为 mandatory）或发送失败时以异常完成并记录错误日志，
+ * 因此消息不会在没有任何通知的情况下丢失。需要 {@code spring.rabbitmq.publisher-confirm-type=correlated}
+ * 和 {@code spring.rabbitmq.publisher-returns=true}。
+ * </p>
+ * <p>
+ * 队列已满或发布器没有运行时消息被拒绝，future 以 {@link RejectedExecutionException} 完成。
+ * 拒绝通常成片出现，因此只计入 {@code amqp.publisher.rejected} 指标，
+ * 警告日志不带堆栈，每 {@value #REJECTION_LOG_INTERVAL_SECONDS} 秒最多一条，并给出期间被拒绝的消息数。
+ * </p>
+ * <p>
+ * 应用关闭时先停止接收新消息，发布线程把队列中剩余的消息发送完再退出；
+ * 超过 {@code shutdown-timeout} 仍未发送的消息以异常完成。检查运行状态和入队在同一把锁内进行，
+ * 因此停止后不会再有消息进入队列，每个 future 都会完成。
+ * 队列中的消息数以 {@code amqp.publisher.queued} 指标发布，发送失败和关闭时没有发出的消息数以
+ * {@code amqp.publisher.failed} 发布。
+ * </p>
+ */
+@Component
+public class NotificationPublisher implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationPublisher.class);
+
+    private static final long REJECTION_LOG_INTERVAL_SECONDS = 10;
+
+    private final RabbitTemplate rabbitTemplate;
+
+    private final BlockingQueue<PendingMessage> queue;
+
+    private final int batchSize;
+
+    private final Duration shutdownTimeout;
+
+    private final Counter failed;
+
+    private final Counter rejected;
+
+    /**
+     * 下一次可以记录拒绝警告的时间（{@link System#nanoTime()}）
+     */
+    private final AtomicLong nextRejectionLog = new AtomicLong(System.nanoTime());
+
+    /**
+     * 上一条拒绝警告之后被拒绝、没有记录日志的消息数
+     */
+    private final AtomicLong unloggedRejections = new AtomicLong();
+
+    /**
+     * 保护 {@link #running} 的切换和入队，不使用 {@code this}，因为 {@link #stop()} 持有它等待发布线程退出
+     */
+    private final Object stateLock = new Object();
+
+    private volatile boolean running;
+
+    private Thread publisherThread;
+
+    public NotificationPublisher(RabbitTemplate rabbitTemplate,
+            @Value("${app.amqp.publisher.buffer-size:10000}") int bufferSize,
+            @Value("${app.amqp.publisher.batch-size:100}") int batchSize,
+            @Value("${app.amqp.publisher.shutdown-timeout:10s}") Duration shutdownTimeout,
+            MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.queue = new ArrayBlockingQueue<>(bufferSize);
+        this.batchSize = batchSize;
+        this.shutdownTimeout = shutdownTimeout;
+        this.failed = Counter.builder("amqp.publisher.failed")
+                .description("Notification messages that were not confirmed by the broker").register(meterRegistry);
+        this.rejected = Counter.builder("amqp.publisher.rejected")
+                .description("Notification messages that were rejected because the publisher was full or not running")
+                .register(meterRegistry);
+        Gauge.builder("amqp.publisher.queued", queue, BlockingQueue::size)
+                .description("Notification messages waiting to be sent").register(meterRegistry);
+    }
+
+    /**
+     * 把消息加入发送队列
+     *
+     * @param notificationMessage
+     *            要发送的消息
+     * @return 在 broker 确认收到消息后完成的 future；消息被拒绝、退回或发送失败时以异常完成
+     */
+    public CompletableFuture<Void> publish(NotificationMessage notificationMessage) {
+        var pending = new PendingMessage(notificationMessage, new CompletableFuture<>());
+        boolean accepting;
+        boolean queued;
+        synchronized (stateLock) {
+            accepting = running;
+            queued = accepting && queue.offer(pending);
+        }
+        if (!accepting) {
+            reject(pending, "Notification publisher is not running");
+        } else if (!queued) {
+            reject(pending, "Notification publisher queue is full");
+        }
+        return pending.result();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        synchronized (stateLock) {
+            running = true;
+        }
+        publisherThread = Thread.ofPlatform().name("amqp-publisher").daemon().start(this::publishLoop);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        synchronized (stateLock) {
+            running = false;
+        }
+        // 此后不会再有消息入队，下面的 drainTo 取走的就是全部剩余消息
+        try {
+            publisherThread.join(shutdownTimeout);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        publisherThread.interrupt();
+        var remaining = new ArrayList<PendingMessage>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            logger.warn("{} notification messages were not sent within the shutdown timeout of {}", remaining.size(),
+                    shutdownTimeout);
+            failed.increment(remaining.size());
+            var error = new RejectedExecutionException("Notification publisher stopped");
+            remaining.forEach(pending -> pending.result().completeExceptionally(error));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void publishLoop() {
+        var batch = new ArrayList<PendingMessage>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                var first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                send(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<PendingMessage> batch) {
+        var sent = new AtomicInteger();
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (var pending : batch) {
+                    var correlationData = new CorrelationData(pending.message().getId());
+                    correlationData.getFuture().whenComplete((confirm, ex) -> complete(pending, correlationData,
+                            ex != null ? ex : confirm.ack() ? null : new AmqpException("Nacked: " + confirm.reason())));
+                    operations.convertAndSend(AmqpConfig.NOTIFICATION_EXCHANGE, AmqpConfig.NOTIFICATION_ROUTING_KEY,
+                            pending.message(), correlationData);
+                    sent.incrementAndGet();
+                }
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            // 已经发出的消息由 broker 的确认（或 channel 关闭时的 nack）完成，这里只处理没有发出的消息
+            logger.warn("Failed to send {} of {} notification messages: {}", batch.size() - sent.get(), batch.size(),
+                    ex.getMessage());
+            batch.subList(sent.get(), batch.size()).forEach(pending -> fail(pending, ex));
+        }
+    }
+
+    private void complete(PendingMessage pending, CorrelationData correlationData, @Nullable Throwable error) {
+        if (error == null && correlationData.getReturned() != null) {
+            error = new AmqpException("Returned as unroutable: " + correlationData.getReturned().getReplyText());
+        }
+        if (error != null) {
+            fail(pending, error);
+        } else {
+            logger.debug("Notification message confirmed: {}", pending.message());
+            pending.result().complete(null);
+        }
+    }
+
+    private void fail(PendingMessage pending, Throwable error) {
+        failed.increment();
+        logger.error("Notification message not delivered: {}", pending.message(), error);
+        pending.result().completeExceptionally(error);
+    }
+
+    private void reject(PendingMessage pending, String reason) {
+        rejected.increment();
+        var now = System.nanoTime();
+        var next = nextRejectionLog.get();
+        if (now - next >= 0
+                && nextRejectionLog.compareAndSet(next, now + TimeUnit.SECONDS.toNanos(REJECTION_LOG_INTERVAL_SECONDS))) {
+            logger.warn("Notification message rejected: {} ({} more rejected since the last warning)", reason,
+                    unloggedRejections.getAndSet(0));
+        } else {
+            unloggedRejections.incrementAndGet();
+        }
+        pending.result().completeExceptionally(new RejectedExecutionException(reason));
+    }
+
+    private record PendingMessage(NotificationMessage message, CompletableFuture<Void> result) {
+    }
+}
@@ -4,6 +4,7 @@
  * 该包包含了AMQP消息发送服务：
  * <ul>
  *   <li>{@link cc.fss.vaadin.amqp.service.AmqpMessageService} - AMQP消息发送服务</li>
+ *   <li>{@link cc.fss.vaadin.amqp.service.NotificationPublisher} - 批量异步发布通知消息，跟踪 publisher confirm</li>
  * </ul>
  *
  * @since 1.0
@@ -11,6 +11,8 @@ import com.vaadin.flow.component.textfield.TextArea;
 import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.router.Route;
 
+import java.util.concurrent.CompletableFuture;
+
 @Route(value = "amqp-test", layout = MainLayout.class)
 public class AmqpTestView extends VerticalLayout {
 
@@ -69,37 +71,32 @@ public class AmqpTestView extends VerticalLayout {
     }
 
     private void sendNotification(String type, TextField titleField, TextArea messageField) {
-        try {
-            String title = titleField.getValue();
-            String message = messageField.getValue();
+        String title = titleField.getValue();
+        String message = messageField.getValue();
 
-            if (title == null || title.trim().isEmpty()) {
-                Notification.show("Please enter a notification title", 3000, Notification.Position.MIDDLE);
-                return;
-            }
+        if (title == null || title.trim().isEmpty()) {
+            Notification.show("Please enter a notification title", 3000, Notification.Position.MIDDLE);
+            return;
+        }
 
-            switch (type) {
-                case "INFO":
-                    amqpMessageService.sendInfoNotification(title, message, "test-user");
-                    break;
-                case "SUCCESS":
-                    amqpMessageService.sendSuccessNotification(title, message, "test-user");
-                    break;
-                case "WARNING":
-                    amqpMessageService.sendWarningNotification(title, message, "test-user");
-                    break;
-                case "ERROR":
-                    amqpMessageService.sendErrorNotification(title, message, "test-user");
-                    break;
+        // 消息在后台发送，broker 确认后再显示结果，界面不会被阻塞
+        CompletableFuture<Void> result = switch (type) {
+            case "SUCCESS" -> amqpMessageService.sendSuccessNotification(title, message, "test-user");
+            case "WARNING" -> amqpMessageService.sendWarningNotification(title, message, "test-user");
+            case "ERROR" -> amqpMessageService.sendErrorNotification(title, message, "test-user");
+            default -> amqpMessageService.sendInfoNotification(title, message, "test-user");
+        };
+        result.whenComplete((ignored, ex) -> getUI().ifPresent(ui -> ui.access(() -> {
+            if (ex == null) {
+                Notification.show(type + " notification sent successfully!", 3000, Notification.Position.MIDDLE);
+            } else {
+                Notification.show("Error sending notification: " + ex.getMessage(), 5000,
+                        Notification.Position.MIDDLE);
             }
+        })));
 
-            Notification.show(type + " notification sent successfully!", 3000, Notification.Position.MIDDLE);
-
-            // 清空字段
-            titleField.clear();
-            messageField.clear();
-        } catch (Exception ex) {
-            Notification.show("Error sending notification: " + ex.getMessage(), 5000, Notification.Position.MIDDLE);
-        }
+        // 清空字段
+        titleField.clear();
+        messageField.clear();
     }
 }
@@ -0,0 +1,55 @@
+package cc.fss.vaadin.base.concurrent;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with the same key into a single call.
+ * <p>
+ * The first subscriber for a key starts the call. Everyone who subscribes for the same key while the call is still in
+ * flight shares its result, or its error, instead of starting a call of their own. Once the call has completed, the
+ * next subscriber for the key starts a new call, so results are never reused after the fact. Use a cache for that.
+ * </p>
+ * <p>
+ * The call is cancelled only when all of its subscribers have cancelled.
+ * </p>
+ *
+ * @param <K>
+ *            the type of the keys, which must implement {@code equals} and {@code hashCode}
+ * @param <V>
+ *            the type of the results
+ */
+public final class SingleFlight<K, V> {
+
+    private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the result of the call in flight for the given key, or of a new call if there is none.
+     *
+     * @param key
+     *            the key identifying the call
+     * @param call
+     *            creates the call, invoked only if no call for the key is in flight when subscribing
+     * @return the result of the shared call
+     */
+    public Mono<V> execute(K key, Supplier<? extends Mono<V>> call) {
+        return Mono.defer(() -> inFlight.computeIfAbsent(key, k -> newFlight(k, call)));
+    }
+
+    /**
+     * Returns the number of calls currently in flight.
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private Mono<V> newFlight(K key, Supplier<? extends Mono<V>> call) {
+        var flight = new AtomicReference<Mono<V>>();
+        flight.set(Mono.defer(call).doFinally(signal -> inFlight.remove(key, flight.get())).share());
+        return flight.get();
+    }
+}
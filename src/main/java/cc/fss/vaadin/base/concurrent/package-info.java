@@ -0,0 +1,7 @@
+/**
+ * This package contains concurrency utilities.
+ */
+@NullMarked
+package cc.fss.vaadin.base.concurrent;
+
+import org.jspecify.annotations.NullMarked;
@@ -0,0 +1,89 @@
+package cc.fss.vaadin.base.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Periodically measures the replication lag of the read replicas, and takes replicas that lag too far behind the
+ * primary out of the rotation of {@link ReplicaRoutingDataSource} until they have caught up.
+ * <p>
+ * Replicas that cannot be reached are taken out of the rotation as well. The lag of every replica is published as the
+ * {@code app.datasource.replica.lag} gauge, in seconds.
+ * </p>
+ */
+public class ReplicaLagMonitor {
+
+    /**
+     * Seconds since the last replayed transaction, or zero when the replica has replayed everything it has received.
+     * A server that is not in recovery is not a replica and has no lag.
+     */
+    static final String LAG_SQL = """
+            select case
+                when not pg_is_in_recovery() then 0
+                when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                else extract(epoch from now() - pg_last_xact_replay_timestamp())
+            end
+            """;
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    private final Duration maxLag;
+
+    private final Map<String, Double> lagSeconds = new ConcurrentHashMap<>();
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource, Duration maxLag,
+            MeterRegistry meterRegistry) {
+        this.routingDataSource = routingDataSource;
+        this.maxLag = maxLag;
+        for (var name : routingDataSource.getReplicas().keySet()) {
+            lagSeconds.put(name, 0.0);
+            Gauge.builder("app.datasource.replica.lag", lagSeconds, lags -> lags.getOrDefault(name, Double.NaN))
+                    .description("Replication lag of the read replica").baseUnit("seconds").tag("pool", name)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica-routing.lag-check-interval:5s}")
+    public void checkLag() {
+        routingDataSource.getReplicas().forEach(this::checkLag);
+    }
+
+    private void checkLag(String name, DataSource replica) {
+        double lag;
+        try (var connection = replica.getConnection();
+                var statement = connection.createStatement();
+                var resultSet = statement.executeQuery(LAG_SQL)) {
+            resultSet.next();
+            lag = resultSet.getDouble(1);
+            if (resultSet.wasNull()) {
+                // Nothing has been replayed since the replica started
+                lag = Double.POSITIVE_INFINITY;
+            }
+        } catch (SQLException ex) {
+            logger.warn("Could not check the replication lag of {}", name, ex);
+            lag = Double.NaN;
+        }
+        lagSeconds.put(name, lag);
+
+        var healthy = lag <= maxLag.toMillis() / 1000.0; // false for NaN
+        if (healthy != routingDataSource.isHealthy(name)) {
+            if (healthy) {
+                logger.info("Replica {} caught up, routing reads to it again", name);
+            } else {
+                logger.warn("Replica {} lags {} seconds behind, routing its reads elsewhere", name, lag);
+            }
+            routingDataSource.markHealthy(name, healthy);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package cc.fss.vaadin.base.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Data source that spreads connections over a set of read replicas, round robin.
+ * <p>
+ * Only replicas that are marked healthy receive connections. When none of them is healthy, connections come from the
+ * fallback data source, which normally is the primary. The health of the replicas is maintained by
+ * {@link ReplicaLagMonitor}.
+ * </p>
+ * <p>
+ * This data source owns the replica pools and closes them when it is closed. The fallback data source is not closed.
+ * </p>
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private final Map<String, HikariDataSource> replicas;
+
+    private final Set<String> healthyReplicas = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private volatile List<String> routableReplicas = List.of();
+
+    /**
+     * Creates a new routing data source. All replicas start out healthy.
+     *
+     * @param replicas
+     *            the replica pools by pool name
+     * @param fallback
+     *            the data source to use when no replica is healthy
+     */
+    public ReplicaRoutingDataSource(Map<String, HikariDataSource> replicas, DataSource fallback) {
+        this.replicas = Map.copyOf(replicas);
+        setTargetDataSources(new HashMap<>(replicas));
+        setDefaultTargetDataSource(fallback);
+        setLenientFallback(false);
+        replicas.keySet().forEach(name -> markHealthy(name, true));
+    }
+
+    /**
+     * Returns the replica pools by pool name.
+     *
+     * @return an unmodifiable map of the replica pools
+     */
+    public Map<String, HikariDataSource> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Marks a replica as healthy or unhealthy. Unhealthy replicas receive no new connections.
+     *
+     * @param name
+     *            the pool name of the replica
+     * @param healthy
+     *            {@code true} to route connections to the replica, {@code false} to stop doing so
+     */
+    public void markHealthy(String name, boolean healthy) {
+        if (!replicas.containsKey(name)) {
+            throw new IllegalArgumentException("Unknown replica: " + name);
+        }
+        var changed = healthy ? healthyReplicas.add(name) : healthyReplicas.remove(name);
+        if (changed) {
+            routableReplicas = replicas.keySet().stream().filter(healthyReplicas::contains).sorted().toList();
+        }
+    }
+
+    /**
+     * Returns whether a replica currently receives connections.
+     *
+     * @param name
+     *            the pool name of the replica
+     * @return {@code true} if the replica is healthy
+     */
+    public boolean isHealthy(String name) {
+        return healthyReplicas.contains(name);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        var candidates = routableReplicas;
+        if (candidates.isEmpty()) {
+            // The default target data source is used for a null key
+            return null;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    @Override
+    public void close() {
+        replicas.values().forEach(HikariDataSource::close);
+    }
+}
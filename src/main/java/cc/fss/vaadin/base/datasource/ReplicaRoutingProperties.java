@@ -0,0 +1,41 @@
+package cc.fss.vaadin.base.datasource;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration of the read replicas, bound from the {@code app.datasource.replica-routing.*} properties.
+ *
+ * @param enabled
+ *            whether read-only transactions are routed to the replicas
+ * @param maxLag
+ *            how far a replica may lag behind the primary before it stops receiving reads
+ * @param lagCheckInterval
+ *            how often the replication lag of the replicas is checked
+ * @param maximumPoolSize
+ *            the maximum size of the connection pool of each replica
+ * @param replicas
+ *            the replicas to route read-only transactions to
+ */
+@ConfigurationProperties("app.datasource.replica-routing")
+public record ReplicaRoutingProperties(boolean enabled, @DefaultValue("10s") Duration maxLag,
+        @DefaultValue("5s") Duration lagCheckInterval, @DefaultValue("10") int maximumPoolSize,
+        @DefaultValue List<Replica> replicas) {
+
+    /**
+     * Connection settings of a single read replica.
+     *
+     * @param url
+     *            the JDBC URL of the replica
+     * @param username
+     *            the user name, or {@code null} to use the one of the primary
+     * @param password
+     *            the password, or {@code null} to use the one of the primary
+     */
+    public record Replica(String url, @Nullable String username, @Nullable String password) {
+    }
+}
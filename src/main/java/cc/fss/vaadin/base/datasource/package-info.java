@@ -0,0 +1,7 @@
+/**
+ * This package contains the optional routing of read-only transactions to read replicas.
+ */
+@NullMarked
+package cc.fss.vaadin.base.datasource;
+
+import org.jspecify.annotations.NullMarked;
@@ -0,0 +1,93 @@
+package cc.fss.vaadin.base.diagnostics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, using the JDK Flight Recorder
+ * {@code jdk.VirtualThreadPinned} event.
+ * <p>
+ * A pinned virtual thread blocks its carrier thread, typically because it blocks inside a {@code synchronized} block or
+ * a native frame. Every pinning that lasts longer than the threshold is recorded in the
+ * {@code jvm.threads.virtual.pinned} timer. The first few distinct stack traces are logged, so that the code causing
+ * the pinning can be found without flooding the log.
+ * </p>
+ */
+public class VirtualThreadPinningMonitor implements InitializingBean, DisposableBean {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int MAX_LOGGED_STACK_TRACES = 100;
+
+    private static final int MAX_LOGGED_FRAMES = 20;
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private final Duration threshold;
+
+    private final Timer pinnedTimer;
+
+    private final Set<String> loggedStackTraces = ConcurrentHashMap.newKeySet();
+
+    private @Nullable RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(Duration threshold, MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.pinnedTimer = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads pinned to their carrier thread for longer than the threshold")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        var stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        recordingStream = stream;
+        logger.info("Reporting virtual threads pinned for longer than {}", threshold);
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedTimer.record(event.getDuration());
+        var stackTrace = format(event);
+        if (loggedStackTraces.size() < MAX_LOGGED_STACK_TRACES && loggedStackTraces.add(stackTrace)) {
+            logger.warn("Virtual thread {} pinned its carrier thread for {} ms at{}", event.getThread().getJavaName(),
+                    event.getDuration().toMillis(), stackTrace);
+        }
+    }
+
+    private static String format(RecordedEvent event) {
+        var stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return " (no stack trace)";
+        }
+        return stackTrace.getFrames().stream().limit(MAX_LOGGED_FRAMES).map(VirtualThreadPinningMonitor::format)
+                .collect(Collectors.joining());
+    }
+
+    private static String format(RecordedFrame frame) {
+        var method = frame.getMethod();
+        return "\n\tat " + method.getType().getName() + "." + method.getName() + "(line " + frame.getLineNumber() + ")";
+    }
+
+    @Override
+    public void destroy() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+/**
+ * This package contains runtime diagnostics.
+ */
+@NullMarked
+package cc.fss.vaadin.base.diagnostics;
+
+import org.jspecify.annotations.NullMarked;
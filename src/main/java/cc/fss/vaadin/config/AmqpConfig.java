@@ -1,19 +1,30 @@
 package cc.fss.vaadin.config;
 
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.time.Duration;
 
 @Configuration
+@EnableConfigurationProperties(AmqpConfig.NotificationListenerProperties.class)
 public class AmqpConfig {
 
     public static final String NOTIFICATION_QUEUE = "notification.queue";
     public static final String NOTIFICATION_EXCHANGE = "notification.exchange";
     public static final String NOTIFICATION_ROUTING_KEY = "notification.routing.key";
+    public static final String NOTIFICATION_LISTENER_CONTAINER_FACTORY = "notificationListenerContainerFactory";
+    public static final String NOTIFICATION_BATCH_LISTENER_CONTAINER_FACTORY = "notificationBatchListenerContainerFactory";
 
     @Bean
     public Queue notificationQueue() {
@@ -37,10 +48,109 @@ public class AmqpConfig {
         return new Jackson2JsonMessageConverter();
     }
 
+    /**
+     * 使用应用的主消息转换器（见 {@code NotificationMessageConverterConfig}），而不是直接使用 JSON 转换器
+     */
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
-        rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        rabbitTemplate.setMessageConverter(messageConverter);
+        // 无法路由的消息退回给发送方，而不是被 broker 静默丢弃
+        rabbitTemplate.setMandatory(true);
         return rabbitTemplate;
     }
+
+    /**
+     * 通知消息监听容器配置，对应 {@code app.amqp.notification-listener.*} 属性
+     *
+     * @param concurrency
+     *            最少的消费者数
+     * @param maxConcurrency
+     *            最多的消费者数
+     * @param prefetch
+     *            每个消费者最多同时持有的未确认消息数
+     * @param consecutiveActiveTrigger
+     *            消费者连续多少次取到消息后增加一个消费者
+     * @param startConsumerMinInterval
+     *            两次增加消费者的最小间隔
+     * @param virtualThreads
+     *            消费者是否运行在虚拟线程上
+     * @param batch
+     *            批量消费配置
+     */
+    @ConfigurationProperties("app.amqp.notification-listener")
+    public record NotificationListenerProperties(@DefaultValue("2") int concurrency,
+            @DefaultValue("8") int maxConcurrency, @DefaultValue("50") int prefetch,
+            @DefaultValue("10") int consecutiveActiveTrigger, @DefaultValue("2s") Duration startConsumerMinInterval,
+            @DefaultValue("false") boolean virtualThreads, @DefaultValue Batch batch) {
+
+        /**
+         * 批量消费配置，对应 {@code app.amqp.notification-listener.batch.*} 属性
+         *
+         * @param enabled
+         *            是否使用批量监听方法，而不是逐条处理的监听方法
+         * @param size
+         *            每批最多的消息数
+         * @param receiveTimeout
+         *            队列中没有更多消息时，等待攒满一批的最长时间
+         */
+        public record Batch(@DefaultValue("false") boolean enabled, @DefaultValue("100") int size,
+                @DefaultValue("200ms") Duration receiveTimeout) {
+        }
+    }
+
+    /**
+     * 通知消息监听容器工厂
+     * 先应用 {@code spring.rabbitmq.listener.simple.*}，再用 {@code app.amqp.notification-listener.*} 覆盖：
+     * <ul>
+     *   <li>{@code concurrency} 到 {@code max-concurrency} 个消费者：消费者连续 {@code consecutive-active-trigger}
+     *       次都取到消息（队列有积压）时增加一个消费者，间隔不小于 {@code start-consumer-min-interval}；
+     *       连续空闲时逐个减少，直到 {@code concurrency}</li>
+     *   <li>{@code prefetch}：每个消费者最多同时持有的未确认消息数</li>
+     *   <li>{@code virtual-threads}：消费者运行在虚拟线程上（Java 21），处理函数阻塞时不占用平台线程</li>
+     * </ul>
+     * 慢的处理函数只会占住一个消费者，其它消费者继续处理队列中的消息。
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory notificationListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            NotificationListenerProperties properties) {
+        return createListenerContainerFactory(configurer, connectionFactory, properties, properties.prefetch());
+    }
+
+    /**
+     * 批量消费通知消息的监听容器工厂
+     * 与 {@link #notificationListenerContainerFactory} 的配置相同，但每个消费者把最多 {@code batch.size} 条消息
+     * 攒成一批（队列中没有更多消息时最多等待 {@code batch.receive-timeout}）一次交给监听方法，
+     * 整批处理成功后用一次 multiple ack 确认。预取数不小于批大小，否则攒不满一批。
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory notificationBatchListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            NotificationListenerProperties properties) {
+        var batch = properties.batch();
+        var factory = createListenerContainerFactory(configurer, connectionFactory, properties,
+                Math.max(properties.prefetch(), batch.size()));
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batch.size());
+        factory.setReceiveTimeout(batch.receiveTimeout().toMillis());
+        return factory;
+    }
+
+    private static SimpleRabbitListenerContainerFactory createListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            NotificationListenerProperties properties, int prefetch) {
+        var factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setConcurrentConsumers(properties.concurrency());
+        factory.setMaxConcurrentConsumers(properties.maxConcurrency());
+        factory.setPrefetchCount(prefetch);
+        factory.setConsecutiveActiveTrigger(properties.consecutiveActiveTrigger());
+        factory.setStartConsumerMinInterval(properties.startConsumerMinInterval().toMillis());
+        if (properties.virtualThreads()) {
+            factory.setTaskExecutor(new VirtualThreadTaskExecutor("notification-listener-"));
+        }
+        return factory;
+    }
 }
@@ -0,0 +1,19 @@
+package cc.fss.vaadin.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * 缓存配置类
+ * 缓存的名称、容量和过期时间通过 {@code spring.cache.*} 属性配置。
+ * <p>
+ * 缓存拦截器排在方法安全拦截器之后、事务拦截器之前：
+ * 命中缓存时仍然会先做权限检查，而 {@code @CacheEvict} 会在事务提交之后才执行，
+ * 这样并发的读请求不会把提交前的旧数据重新放回缓存。
+ * </p>
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+}
@@ -0,0 +1,39 @@
+package cc.fss.vaadin.config;
+
+import cc.fss.vaadin.base.diagnostics.VirtualThreadPinningMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Duration;
+
+/**
+ * 线程执行配置类
+ * 启用 {@code @Async} 和 {@code @Scheduled}。
+ * <p>
+ * 执行方式由 {@code spring.threads.virtual.enabled} 切换：启用后，Tomcat 处理请求（包括 Vaadin UIDL 请求和
+ * {@code /api} 接口）、{@code @Async} 方法、定时任务和 RabbitMQ 监听容器都运行在虚拟线程上，
+ * 不再受平台线程池大小的限制；关闭时使用默认的平台线程池。
+ * </p>
+ * <p>
+ * 启用虚拟线程时同时启用 {@link VirtualThreadPinningMonitor}，报告长时间占住载体线程的虚拟线程。
+ * </p>
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class ExecutionConfig {
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${app.diagnostics.virtual-thread-pinning.threshold:20ms}") Duration threshold,
+            MeterRegistry meterRegistry) {
+        return new VirtualThreadPinningMonitor(threshold, meterRegistry);
+    }
+}
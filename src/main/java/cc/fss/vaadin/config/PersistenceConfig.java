@@ -0,0 +1,64 @@
+package cc.fss.vaadin.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+/**
+ * 持久化配置类
+ * 应用同时使用 JPA（Vaadin 视图和 {@code TaskService}）和 R2DBC（WebFlux 路由和 {@code ReactiveTaskService}）。
+ * <p>
+ * 只要存在 R2DBC 的 {@code ConnectionFactory}，Spring Boot 就不再自动配置 JDBC 数据源，
+ * 而 R2DBC 的事务管理器也会让 JPA 事务管理器的自动配置失效，因此这两个 Bean 在这里显式声明。
+ * JPA 事务管理器标记为 {@link Primary}，{@code @Transactional} 默认使用它；
+ * 响应式代码通过 {@code TransactionalOperator} 使用 R2DBC 事务管理器。
+ * </p>
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class PersistenceConfig {
+
+    public static final String PRIMARY_POOL_NAME = "primary";
+
+    /**
+     * 主库连接池，由 {@code spring.datasource.*} 配置。
+     * 测试中由 Testcontainers 提供的连接信息优先。
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties,
+            ObjectProvider<JdbcConnectionDetails> connectionDetailsProvider, MeterRegistry meterRegistry) {
+        var connectionDetails = connectionDetailsProvider.getIfAvailable();
+        var builder = connectionDetails == null ? dataSourceProperties.initializeDataSourceBuilder()
+                : DataSourceBuilder.create(dataSourceProperties.getClassLoader())
+                        .url(connectionDetails.getJdbcUrl())
+                        .username(connectionDetails.getUsername())
+                        .password(connectionDetails.getPassword())
+                        .driverClassName(connectionDetails.getDriverClassName());
+        var dataSource = builder.type(HikariDataSource.class).build();
+        dataSource.setPoolName(PRIMARY_POOL_NAME);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+            ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        var transactionManager = new JpaTransactionManager(entityManagerFactory);
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+}
@@ -0,0 +1,75 @@
+package cc.fss.vaadin.config;
+
+import cc.fss.vaadin.base.datasource.ReplicaLagMonitor;
+import cc.fss.vaadin.base.datasource.ReplicaRoutingDataSource;
+import cc.fss.vaadin.base.datasource.ReplicaRoutingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+
+/**
+ * 只读副本路由配置（可选）
+ * 设置 {@code app.datasource.replica-routing.enabled=true} 后启用。
+ * <p>
+ * 只读事务（{@code @Transactional(readOnly = true)}）发往只读副本，其余事务和非事务访问发往主库。
+ * 主库连接池仍然由 {@link PersistenceConfig} 按 {@code spring.datasource.*} 创建，每个副本使用单独的连接池，
+ * 所有连接池的指标都以 {@code hikaricp.*} 发布，并按 {@code pool} 标签区分。
+ * </p>
+ * <p>
+ * 路由依赖 {@link LazyConnectionDataSourceProxy}：事务开始时只拿到一个代理连接，
+ * 直到执行第一条语句时才根据连接的只读标志从主库或副本获取真正的连接。
+ * 复制延迟超过 {@code max-lag} 的副本由 {@link ReplicaLagMonitor} 暂时移出路由，
+ * 没有可用副本时只读事务回退到主库。
+ * </p>
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+@ConditionalOnProperty(prefix = "app.datasource.replica-routing", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(ReplicaRoutingProperties properties,
+            DataSourceProperties dataSourceProperties, HikariDataSource primaryDataSource,
+            MeterRegistry meterRegistry) {
+        var replicas = new LinkedHashMap<String, HikariDataSource>();
+        for (var replica : properties.replicas()) {
+            var dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + (replicas.size() + 1));
+            dataSource.setJdbcUrl(replica.url());
+            // 副本未配置凭据时沿用主库的凭据，两者都可以为空（例如凭据包含在 URL 中）
+            dataSource.setUsername(replica.username() != null ? replica.username()
+                    : dataSourceProperties.determineUsername());
+            dataSource.setPassword(replica.password() != null ? replica.password()
+                    : dataSourceProperties.determinePassword());
+            dataSource.setMaximumPoolSize(properties.maximumPoolSize());
+            dataSource.setReadOnly(true);
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(dataSource.getPoolName(), dataSource);
+        }
+        return new ReplicaRoutingDataSource(replicas, primaryDataSource);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+        var dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingProperties properties,
+            ReplicaRoutingDataSource replicaRoutingDataSource, MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource, properties.maxLag(), meterRegistry);
+    }
+}
@@ -0,0 +1,95 @@
+package cc.fss.vaadin.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * WebClient配置类
+ * 整个应用共用一个连接池和一个 {@link WebClient}，所有对外的响应式 HTTP 调用都应注入这个 Bean，
+ * 而不是自己调用 {@code WebClient.create()}。
+ * <p>
+ * 连接池按目标主机复用连接，空闲或存活过久的连接会在后台回收；
+ * 连接池已满时请求最多排队 {@code pending-acquire-max-count} 个、等待 {@code pending-acquire-timeout}。
+ * 连接池指标以 {@code reactor.netty.connection.provider.*} 发布，按 {@code remote.address} 区分主机。
+ * HTTPS 连接通过 ALPN 协商 HTTP/2，不支持时使用 HTTP/1.1。
+ * </p>
+ * <p>
+ * 连接器同时用于 Spring Boot 提供的 {@code WebClient.Builder}，因此其他地方构建的 WebClient 也共用这个连接池。
+ * </p>
+ */
+@Configuration
+@EnableConfigurationProperties(WebClientConfig.WebClientProperties.class)
+public class WebClientConfig {
+
+    /**
+     * WebClient 配置，对应 {@code app.web-client.*} 属性
+     *
+     * @param baseUrl
+     *            默认的基础地址
+     * @param maxConnections
+     *            每个主机的最大连接数
+     * @param pendingAcquireMaxCount
+     *            连接池已满时最多排队的请求数
+     * @param pendingAcquireTimeout
+     *            排队等待连接的最长时间
+     * @param maxIdleTime
+     *            连接空闲多久后关闭
+     * @param maxLifeTime
+     *            连接最长存活时间
+     * @param connectTimeout
+     *            建立连接的超时时间
+     * @param responseTimeout
+     *            等待响应的超时时间
+     */
+    @ConfigurationProperties("app.web-client")
+    public record WebClientProperties(@DefaultValue("http://localhost:8080") String baseUrl,
+            @DefaultValue("100") int maxConnections, @DefaultValue("500") int pendingAcquireMaxCount,
+            @DefaultValue("5s") Duration pendingAcquireTimeout, @DefaultValue("30s") Duration maxIdleTime,
+            @DefaultValue("5m") Duration maxLifeTime, @DefaultValue("2s") Duration connectTimeout,
+            @DefaultValue("10s") Duration responseTimeout) {
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider webClientConnectionProvider(WebClientProperties properties) {
+        return ConnectionProvider.builder("web-client")
+                .maxConnections(properties.maxConnections())
+                .pendingAcquireMaxCount(properties.pendingAcquireMaxCount())
+                .pendingAcquireTimeout(properties.pendingAcquireTimeout())
+                .maxIdleTime(properties.maxIdleTime())
+                .maxLifeTime(properties.maxLifeTime())
+                .evictInBackground(Duration.ofSeconds(30))
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public ClientHttpConnector webClientHttpConnector(ConnectionProvider webClientConnectionProvider,
+            WebClientProperties properties) {
+        var httpClient = HttpClient.create(webClientConnectionProvider)
+                .protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.connectTimeout().toMillis())
+                .responseTimeout(properties.responseTimeout());
+        return new ReactorClientHttpConnector(httpClient);
+    }
+
+    /**
+     * 应用共用的 WebClient
+     * 基于 Spring Boot 的 {@code WebClient.Builder}，因此带有应用的编解码器（包括 CBOR 和 Smile）和观测配置
+     */
+    @Bean
+    public WebClient webClient(WebClient.Builder webClientBuilder, WebClientProperties properties) {
+        return webClientBuilder.baseUrl(properties.baseUrl()).build();
+    }
+}
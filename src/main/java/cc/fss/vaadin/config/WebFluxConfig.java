@@ -1,12 +1,27 @@
 package cc.fss.vaadin.config;
 
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.codec.CodecCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.RouterFunctions;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import cc.fss.vaadin.webflux.handler.RateLimitFilter;
+import cc.fss.vaadin.webflux.handler.RouteMetricsFilter;
 import cc.fss.vaadin.webflux.handler.WebFluxHandler;
 
+import java.util.concurrent.RejectedExecutionException;
+
 import static org.springframework.web.reactive.function.server.RequestPredicates.*;
 
 /**
@@ -16,15 +31,64 @@ import static org.springframework.web.reactive.function.server.RequestPredicates
 @Configuration
 public class WebFluxConfig {
 
+    /**
+     * CBOR 编码器
+     * 除了注册为编解码器，任务列表端点也直接用它逐个编码任务，输出 CBOR 序列
+     */
+    @Bean
+    public Jackson2CborEncoder cborEncoder(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+        return new Jackson2CborEncoder(objectMapperBuilder.getObject().factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Smile 编码器
+     * 与 CBOR 编码器一样，任务列表端点直接使用它的 {@code ObjectMapper} 流式写出数组
+     */
+    @Bean
+    public Jackson2SmileEncoder smileEncoder(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+        return new Jackson2SmileEncoder(objectMapperBuilder.getObject().factory(new SmileFactory()).build());
+    }
+
+    /**
+     * 注册 CBOR 和 Smile 编解码器
+     * 路由按请求的 {@code Accept} 和 {@code Content-Type} 选择 JSON、CBOR 或 Smile。
+     * 两种二进制格式使用与 JSON 相同的 Jackson 配置（模块、日期格式等），只是底层格式不同。
+     */
+    @Bean
+    public CodecCustomizer binaryCodecsCustomizer(Jackson2CborEncoder cborEncoder,
+            Jackson2SmileEncoder smileEncoder) {
+        return configurer -> {
+            var codecs = configurer.customCodecs();
+            codecs.register(cborEncoder);
+            codecs.register(new Jackson2CborDecoder(cborEncoder.getObjectMapper()));
+            codecs.register(smileEncoder);
+            codecs.register(new Jackson2SmileDecoder(smileEncoder.getObjectMapper()));
+        };
+    }
+
     /**
      * 配置WebFlux路由
+     * 阻塞操作调度器满载时拒绝的请求返回 503，并提示客户端稍后重试；
+     * 所有路由都经过 {@link RateLimitFilter} 限流，并由最外层的 {@link RouteMetricsFilter} 按路由发布耗时和并发指标
      */
     @Bean
-    public RouterFunction<ServerResponse> webFluxRoutes(WebFluxHandler webFluxHandler) {
+    public RouterFunction<ServerResponse> webFluxRoutes(WebFluxHandler webFluxHandler,
+            RateLimitFilter rateLimitFilter, RouteMetricsFilter routeMetricsFilter) {
         return RouterFunctions
                 .route(GET("/api/webflux/hello"), webFluxHandler::hello)
                 .andRoute(GET("/api/webflux/stream"), webFluxHandler::streamData)
                 .andRoute(POST("/api/webflux/process"), webFluxHandler::processData)
-                .andRoute(GET("/api/webflux/tasks"), webFluxHandler::getTasks);
+                .andRoute(POST("/api/webflux/process/bulk"), webFluxHandler::processBulk)
+                .andRoute(GET("/api/webflux/tasks"), webFluxHandler::getTasks)
+                .andRoute(GET("/api/webflux/tasks/export"), webFluxHandler::exportTasks)
+                .andRoute(POST("/api/webflux/tasks/bulk"), webFluxHandler::createTasks)
+                .andRoute(GET("/api/webflux/tasks/changes"), webFluxHandler::taskChanges)
+                .filter((request, next) -> next.handle(request)
+                        .onErrorResume(RejectedExecutionException.class, ex -> ServerResponse
+                                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, "1")
+                                .build()))
+                .filter(rateLimitFilter)
+                .filter(routeMetricsFilter);
     }
 }
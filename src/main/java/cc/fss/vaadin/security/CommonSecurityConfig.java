@@ -3,6 +3,7 @@ package cc.fss.vaadin.security;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
 import org.springframework.security.core.context.SecurityContextHolderStrategy;
 
 /**
@@ -12,6 +13,8 @@ import org.springframework.security.core.context.SecurityContextHolderStrategy;
  * in the application. It enables:
  * <ul>
  * <li>Spring Security's method-level security annotations</li>
+ * <li>The same annotations on methods returning a {@code Mono} or {@code Flux}, checked against the reactive security
+ * context when the result is subscribed to</li>
  * <li>A {@link CurrentUser} for accessing information about the current user, using the application's security
  * model</li>
  * </ul>
@@ -51,8 +54,10 @@ import org.springframework.security.core.context.SecurityContextHolderStrategy;
  * @see AppUserPrincipal The principal interface that all authenticated users implement
  * @see CurrentUser Utility for accessing the current user information
  * @see org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity
+ * @see org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity
  */
 @EnableMethodSecurity
+@EnableReactiveMethodSecurity
 @Configuration
 class CommonSecurityConfig {
 
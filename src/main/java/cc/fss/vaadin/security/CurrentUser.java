@@ -8,6 +8,7 @@ import org.springframework.security.authentication.AuthenticationCredentialsNotF
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolderStrategy;
 
+import java.security.Principal;
 import java.util.Optional;
 
 import static java.util.Objects.requireNonNull;
@@ -82,6 +83,26 @@ public class CurrentUser {
         return getPrincipal().map(AppUserPrincipal::getAppUser);
     }
 
+    /**
+     * Returns the user authenticated by the given request principal.
+     * <p>
+     * Use this method where the security context is not available through a thread-local, such as in reactive request
+     * handling, where the principal comes from the request (for example {@code ServerRequest.principal()}). Like
+     * {@link #get()}, it returns an empty {@code Optional} for anonymous or incompatible principals.
+     * </p>
+     *
+     * @param principal
+     *            the principal of the request, usually an {@link Authentication}
+     * @return an {@code Optional} containing the user if the principal is authenticated and accessible, or an empty
+     *         {@code Optional} otherwise
+     */
+    public Optional<AppUserInfo> get(@Nullable Principal principal) {
+        var appUserPrincipal = principal instanceof Authentication authentication
+                ? getPrincipalFromAuthentication(authentication)
+                : principal instanceof AppUserPrincipal directPrincipal ? directPrincipal : null;
+        return Optional.ofNullable(appUserPrincipal).map(AppUserPrincipal::getAppUser);
+    }
+
     /**
      * Returns the currently authenticated principal from the security context.
      * <p>
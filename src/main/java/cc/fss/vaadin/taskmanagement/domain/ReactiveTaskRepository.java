@@ -0,0 +1,184 @@
+package cc.fss.vaadin.taskmanagement.domain;
+
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Non-blocking access to the tasks through R2DBC, for the reactive parts of the application.
+ * <p>
+ * This repository shares the {@code task} and {@code task_table_version} tables and the {@code task_seq} sequence with
+ * {@link TaskRepository}. Ids are reserved the same way Hibernate's pooled optimizer reserves them: every value fetched from the sequence is the
+ * highest id of a block of {@value #ID_ALLOCATION_SIZE} ids, so both repositories can insert tasks side by side.
+ * </p>
+ */
+@Repository
+public class ReactiveTaskRepository {
+
+    /**
+     * The increment of {@code task_seq}.
+     */
+    static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final String SELECT_ITEMS_SQL = """
+            select task_id, description, due_date, creation_date
+            from task
+            order by creation_date, task_id
+            """;
+
+    private static final String SELECT_VERSION_SQL = """
+            select version, last_modified
+            from task_table_version
+            where id = 1
+            """;
+
+    private static final String INCREMENT_VERSION_SQL = """
+            update task_table_version
+            set version = version + 1, last_modified = greatest(coalesce(last_modified, $1), $2)
+            where id = 1
+            """;
+
+    private static final String INSERT_SQL = """
+            insert into task (task_id, description, due_date, creation_date)
+            values ($1, $2, $3, $4)
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveTaskRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Streams all tasks as read-only {@link TaskListItem}s, ordered by creation date and id.
+     * <p>
+     * Rows are read from the database as the subscriber requests them, at most {@code fetchSize} rows at a time.
+     * </p>
+     *
+     * @param fetchSize
+     *            the number of rows to fetch from the database per round trip
+     * @return a stream of all tasks
+     */
+    public Flux<TaskListItem> streamItems(int fetchSize) {
+        return databaseClient.sql(SELECT_ITEMS_SQL)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveTaskRepository::toItem)
+                .all();
+    }
+
+    /**
+     * Returns the current version of the task table, reading a single row.
+     *
+     * @return the version
+     */
+    public Mono<TaskTableVersion> findVersion() {
+        return databaseClient.sql(SELECT_VERSION_SQL)
+                .map(row -> {
+                    var lastModified = row.get("last_modified", LocalDateTime.class);
+                    return new TaskTableVersion(row.get("version", Long.class),
+                            lastModified == null ? Instant.EPOCH : toInstant(lastModified));
+                })
+                .one();
+    }
+
+    /**
+     * Inserts the given tasks with a single batched statement and increments the version of the task table. The tasks
+     * themselves are not modified.
+     * <p>
+     * This method does not start a transaction. Subscribe to it within one to insert all or none of the tasks, and to
+     * publish the new version together with them.
+     * </p>
+     *
+     * @param tasks
+     *            the tasks to insert
+     * @return the inserted tasks, with their ids, in the order they were given
+     */
+    public Flux<TaskListItem> insertAll(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return Flux.empty();
+        }
+        return Mono.defer(() -> reserveIds(new ArrayList<>(tasks.size()), tasks.size())).flatMapMany(ids -> {
+            var items = new ArrayList<TaskListItem>(tasks.size());
+            for (var i = 0; i < tasks.size(); i++) {
+                var task = tasks.get(i);
+                items.add(new TaskListItem(ids.get(i), task.getDescription(), task.getDueDate(),
+                        task.getCreationDate()));
+            }
+            var modified = items.stream().map(TaskListItem::creationDate).max(Comparator.naturalOrder()).orElseThrow();
+            return insert(items).then(incrementVersion(modified)).thenMany(Flux.fromIterable(items));
+        });
+    }
+
+    private Mono<Void> incrementVersion(Instant modified) {
+        var timestamp = toTimestamp(modified);
+        return databaseClient.sql(INCREMENT_VERSION_SQL).bind(0, timestamp).bind(1, timestamp).then();
+    }
+
+    private Mono<Void> insert(List<TaskListItem> items) {
+        return databaseClient.inConnectionMany(connection -> {
+            var statement = connection.createStatement(INSERT_SQL);
+            for (var i = 0; i < items.size(); i++) {
+                var item = items.get(i);
+                if (i > 0) {
+                    statement.add();
+                }
+                statement.bind(0, item.id()).bind(1, item.description());
+                if (item.dueDate() == null) {
+                    statement.bindNull(2, LocalDate.class);
+                } else {
+                    statement.bind(2, item.dueDate());
+                }
+                statement.bind(3, toTimestamp(item.creationDate()));
+            }
+            return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+        }).then();
+    }
+
+    private Mono<Long> nextSequenceValue() {
+        var sql = isPostgreSQL() ? "select nextval('task_seq')" : "select next value for task_seq";
+        return databaseClient.sql(sql).map(row -> row.get(0, Long.class)).one();
+    }
+
+    private boolean isPostgreSQL() {
+        return "PostgreSQL".equals(databaseClient.getConnectionFactory().getMetadata().getName());
+    }
+
+    private Mono<List<Long>> reserveIds(List<Long> ids, int count) {
+        if (ids.size() >= count) {
+            return Mono.just(ids);
+        }
+        return nextSequenceValue().flatMap(hi -> {
+            // Like Hibernate, a value below the allocation size only reserves itself
+            for (var id = Math.max(1, hi - ID_ALLOCATION_SIZE + 1); id <= hi && ids.size() < count; id++) {
+                ids.add(id);
+            }
+            return reserveIds(ids, count);
+        });
+    }
+
+    private static TaskListItem toItem(Readable row) {
+        return new TaskListItem(row.get("task_id", Long.class), row.get("description", String.class),
+                row.get("due_date", LocalDate.class), toInstant(row.get("creation_date", LocalDateTime.class)));
+    }
+
+    // creation_date has no time zone; like Hibernate, read and write it in the JVM's default time zone, so tasks
+    // created through JPA and through R2DBC have the same creation dates
+    private static LocalDateTime toTimestamp(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private static Instant toInstant(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
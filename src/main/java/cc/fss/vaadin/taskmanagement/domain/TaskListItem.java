@@ -0,0 +1,25 @@
+package cc.fss.vaadin.taskmanagement.domain;
+
+import org.jspecify.annotations.Nullable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of a {@link Task} for listings.
+ * <p>
+ * Listing queries select these directly with a constructor expression, so Hibernate does not create managed entities,
+ * add them to the persistence context or keep snapshots of them for dirty checking.
+ * </p>
+ *
+ * @param id
+ *            the id of the task
+ * @param description
+ *            the description of the task
+ * @param dueDate
+ *            the due date of the task, or {@code null} if the task has no due date
+ * @param creationDate
+ *            the creation date of the task
+ */
+public record TaskListItem(Long id, String description, @Nullable LocalDate dueDate, Instant creationDate) {
+}
@@ -0,0 +1,79 @@
+package cc.fss.vaadin.taskmanagement.domain;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Custom queries for {@link TaskRepository} that Spring Data cannot derive.
+ */
+public interface TaskQueries {
+
+    /**
+     * Returns a range of the tasks that match the given specification as read-only list items, without counting the
+     * total number of matches.
+     * <p>
+     * This is like {@link org.springframework.data.jpa.repository.JpaSpecificationExecutor#findAll(Specification,
+     * org.springframework.data.domain.Pageable) findAll(Specification, Pageable)}, but returns a plain list instead of a
+     * {@link org.springframework.data.domain.Page}, so no count query is executed. The items are selected with a
+     * constructor expression, so no entities are loaded into the persistence context.
+     * </p>
+     *
+     * @param specification
+     *            the specification to filter the tasks with
+     * @param sort
+     *            the order of the tasks
+     * @param offset
+     *            the number of matching tasks to skip
+     * @param limit
+     *            the maximum number of tasks to return
+     * @return the matching tasks
+     */
+    List<TaskListItem> findItems(Specification<Task> specification, Sort sort, long offset, int limit);
+
+    /**
+     * Returns the number of tasks matching the given specification, but counts no further than {@code max}.
+     * <p>
+     * Unlike a {@code COUNT(*)}, this stops reading as soon as {@code max} matches have been found, so the cost is
+     * bounded even when the specification matches a large part of the table.
+     * </p>
+     *
+     * @param specification
+     *            the specification to filter the tasks with
+     * @param max
+     *            the maximum number of matches to count
+     * @return the number of matches, or {@code max} if there are at least that many
+     */
+    long countUpTo(Specification<Task> specification, int max);
+
+    /**
+     * Returns the approximate number of tasks from the table statistics of the database, without reading the table.
+     * <p>
+     * On PostgreSQL, this is {@code pg_class.reltuples}, which is updated by {@code VACUUM}, {@code ANALYZE} and
+     * autovacuum. It can be off by the number of rows changed since then.
+     * </p>
+     *
+     * @return the approximate number of tasks, or {@code -1} if no estimate is available
+     */
+    long estimateCount();
+
+    /**
+     * Searches the task descriptions and returns a range of the matches as read-only list items, best matches first.
+     * <p>
+     * On PostgreSQL, this is a full-text search backed by the {@code idx_task_description_fts} GIN index. The search
+     * text uses web search syntax: words are combined with AND, {@code "quoted phrases"} must match in order, {@code or}
+     * combines alternatives and {@code -word} excludes a word. On other databases, this falls back to a case-insensitive
+     * substring match, newest tasks first.
+     * </p>
+     *
+     * @param searchText
+     *            the text to search for
+     * @param offset
+     *            the number of matching tasks to skip
+     * @param limit
+     *            the maximum number of tasks to return
+     * @return the matching tasks
+     */
+    List<TaskListItem> search(String searchText, long offset, int limit);
+}
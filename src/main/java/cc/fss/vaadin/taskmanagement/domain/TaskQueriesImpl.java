@@ -0,0 +1,90 @@
+package cc.fss.vaadin.taskmanagement.domain;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+class TaskQueriesImpl implements TaskQueries {
+
+    private static final String FULL_TEXT_SEARCH_SQL = """
+            select t.task_id, t.description, t.due_date, t.creation_date
+            from task t, websearch_to_tsquery('simple', :searchText) q
+            where to_tsvector('simple', t.description) @@ q
+            order by ts_rank(to_tsvector('simple', t.description), q) desc, t.task_id desc""";
+
+    private final EntityManager entityManager;
+
+    TaskQueriesImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<TaskListItem> findItems(Specification<Task> specification, Sort sort, long offset, int limit) {
+        var cb = entityManager.getCriteriaBuilder();
+        var query = cb.createQuery(TaskListItem.class);
+        var root = query.from(Task.class);
+        query.select(cb.construct(TaskListItem.class, root.get("id"), root.get("description"), root.get("dueDate"),
+                root.get("creationDate")));
+        var predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return List.copyOf(entityManager.createQuery(query).setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit).getResultList());
+    }
+
+    @Override
+    public long countUpTo(Specification<Task> specification, int max) {
+        var cb = entityManager.getCriteriaBuilder();
+        var query = cb.createQuery(Long.class);
+        var root = query.from(Task.class);
+        query.select(root.get("id"));
+        var predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).setMaxResults(max).getResultList().size();
+    }
+
+    @Override
+    public long estimateCount() {
+        if (!isPostgreSQL()) {
+            return -1;
+        }
+        // reltuples is -1 (or 0 before PostgreSQL 14) until the table has been vacuumed or analyzed
+        var estimate = (Number) entityManager
+                .createNativeQuery("select reltuples from pg_class where oid = 'task'::regclass")
+                .getSingleResult();
+        return estimate.longValue() > 0 ? estimate.longValue() : -1;
+    }
+
+    @Override
+    public List<TaskListItem> search(String searchText, long offset, int limit) {
+        if (!isPostgreSQL()) {
+            return findItems(TaskSpecifications.descriptionContains(searchText),
+                    TaskSpecifications.keysetSort(Sort.Direction.DESC), offset, limit);
+        }
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(FULL_TEXT_SEARCH_SQL).unwrap(NativeQuery.class)
+                .addScalar("task_id", Long.class).addScalar("description", String.class)
+                .addScalar("due_date", LocalDate.class).addScalar("creation_date", Instant.class)
+                .setParameter("searchText", searchText).setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit).getResultList();
+        return rows.stream().map(row -> new TaskListItem((Long) row[0], (String) row[1], (LocalDate) row[2],
+                (Instant) row[3])).toList();
+    }
+
+    private boolean isPostgreSQL() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+    }
+}
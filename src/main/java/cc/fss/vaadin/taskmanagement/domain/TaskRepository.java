@@ -4,10 +4,29 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface TaskRepository extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task> {
+import java.time.Instant;
+
+public interface TaskRepository extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task>, TaskQueries {
 
     // If you don't need a total row count, Slice is better than Page as it only performs a select query.
     // Page performs both a select and a count query.
     Slice<Task> findAllBy(Pageable pageable);
+
+    /**
+     * Increments the version of the task table, see {@link TaskTableVersion}. Call this in every transaction that
+     * inserts tasks, after the inserts.
+     *
+     * @param modified
+     *            the creation date of the inserted tasks
+     */
+    @Modifying
+    @Query(value = """
+            update task_table_version
+            set version = version + 1, last_modified = greatest(coalesce(last_modified, :modified), :modified)
+            where id = 1""", nativeQuery = true)
+    void incrementVersion(@Param("modified") Instant modified);
 }
@@ -0,0 +1,101 @@
+package cc.fss.vaadin.taskmanagement.domain;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Factory methods for {@link Specification}s that filter tasks.
+ * <p>
+ * Every specification here translates into a predicate that can be answered from an index on the {@code task} table:
+ * the due date conditions use {@code idx_task_due_date}, the keyset condition uses {@code idx_task_creation_date}, and
+ * the description prefix uses the {@code lower(description)} pattern index on PostgreSQL.
+ * </p>
+ */
+public final class TaskSpecifications {
+
+    private static final String ID = "id";
+    private static final String DESCRIPTION = "description";
+    private static final String CREATION_DATE = "creationDate";
+    private static final String DUE_DATE = "dueDate";
+
+    private TaskSpecifications() {
+    }
+
+    public static Specification<Task> dueOnOrAfter(LocalDate date) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get(DUE_DATE), date);
+    }
+
+    public static Specification<Task> dueOnOrBefore(LocalDate date) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get(DUE_DATE), date);
+    }
+
+    public static Specification<Task> dueBefore(LocalDate date) {
+        return (root, query, cb) -> cb.lessThan(root.get(DUE_DATE), date);
+    }
+
+    /**
+     * Matches tasks whose description starts with the given prefix, ignoring case.
+     *
+     * @param prefix
+     *            the prefix; {@code %}, {@code _} and {@code \} are matched literally
+     * @return the specification
+     */
+    public static Specification<Task> descriptionStartsWith(String prefix) {
+        var pattern = escapeLikePattern(prefix.toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get(DESCRIPTION)), pattern, '\\');
+    }
+
+    /**
+     * Matches tasks whose description contains the given text, ignoring case. This cannot use an index, so it is only
+     * used where full-text search is not available.
+     *
+     * @param text
+     *            the text; {@code %}, {@code _} and {@code \} are matched literally
+     * @return the specification
+     */
+    public static Specification<Task> descriptionContains(String text) {
+        var pattern = "%" + escapeLikePattern(text.toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get(DESCRIPTION)), pattern, '\\');
+    }
+
+    /**
+     * Matches tasks that come after the given (creation date, id) position when ordered in the given direction. Used for
+     * keyset pagination together with {@link #keysetSort(Sort.Direction)}.
+     *
+     * @param creationDate
+     *            the creation date of the last task of the previous page
+     * @param id
+     *            the id of the last task of the previous page
+     * @param direction
+     *            the direction in which the tasks are ordered
+     * @return the specification
+     */
+    public static Specification<Task> after(Instant creationDate, long id, Sort.Direction direction) {
+        // The first condition is a plain range on the creation date, so the database can use idx_task_creation_date.
+        // The second one only resolves ties between tasks created at the same instant.
+        return (root, query, cb) -> direction.isAscending()
+                ? cb.and(cb.greaterThanOrEqualTo(root.get(CREATION_DATE), creationDate),
+                        cb.or(cb.greaterThan(root.get(CREATION_DATE), creationDate), cb.greaterThan(root.get(ID), id)))
+                : cb.and(cb.lessThanOrEqualTo(root.get(CREATION_DATE), creationDate),
+                        cb.or(cb.lessThan(root.get(CREATION_DATE), creationDate), cb.lessThan(root.get(ID), id)));
+    }
+
+    /**
+     * Returns the ordering that {@link #after(Instant, long, Sort.Direction)} paginates over.
+     *
+     * @param direction
+     *            the direction in which the tasks are ordered
+     * @return the sort
+     */
+    public static Sort keysetSort(Sort.Direction direction) {
+        return Sort.by(direction, CREATION_DATE, ID);
+    }
+
+    private static String escapeLikePattern(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,24 @@
+package cc.fss.vaadin.taskmanagement.domain;
+
+import java.time.Instant;
+
+/**
+ * A cheap version token of the task table, changing whenever a task is added.
+ * <p>
+ * The version is a counter in the single row of the {@code task_table_version} table. Every transaction that inserts
+ * tasks increments it, through {@link TaskRepository#incrementVersion(Instant)} or
+ * {@link ReactiveTaskRepository#insertAll(java.util.List)}, so the new version becomes visible together with the new
+ * tasks. Reading the version reads that one row and no task data, whatever the size of the task table.
+ * </p>
+ * <p>
+ * The increment locks the row until the inserting transaction ends, so concurrent inserts wait for each other's
+ * commit. Tasks are created one request at a time, so this costs little.
+ * </p>
+ *
+ * @param version
+ *            the number of transactions that have inserted tasks since the table was created
+ * @param lastModified
+ *            the latest creation date, or {@link Instant#EPOCH} if there are no tasks
+ */
+public record TaskTableVersion(long version, Instant lastModified) {
+}
@@ -0,0 +1,16 @@
+package cc.fss.vaadin.taskmanagement.service;
+
+import org.jspecify.annotations.Nullable;
+
+import java.time.LocalDate;
+
+/**
+ * Data for a task that is about to be created.
+ *
+ * @param description
+ *            the description of the task
+ * @param dueDate
+ *            the due date of the task, or {@code null} if the task has no due date
+ */
+public record NewTask(String description, @Nullable LocalDate dueDate) {
+}
@@ -0,0 +1,143 @@
+package cc.fss.vaadin.taskmanagement.service;
+
+import cc.fss.vaadin.base.concurrent.SingleFlight;
+import cc.fss.vaadin.taskmanagement.domain.ReactiveTaskRepository;
+import cc.fss.vaadin.taskmanagement.domain.Task;
+import cc.fss.vaadin.taskmanagement.domain.TaskListItem;
+import cc.fss.vaadin.taskmanagement.domain.TaskTableVersion;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Non-blocking application service for creating and listing tasks, for callers running on reactive threads.
+ * <p>
+ * This service works on the same tasks as {@link TaskService}, but through R2DBC, so no thread is blocked while the
+ * database works. Creating tasks here also clears the caches of {@link TaskService}, and publishes a
+ * {@link TaskChangedEvent} for every created task once the transaction has been committed.
+ * </p>
+ * <p>
+ * Concurrent calls of {@link #version()} share a single query, see {@link SingleFlight}.
+ * </p>
+ * <p>
+ * Like {@link TaskService}, every method requires an authenticated user. The check runs when the returned stream is
+ * subscribed to, against the reactive security context.
+ * </p>
+ */
+@Service
+@PreAuthorize("isAuthenticated()")
+public class ReactiveTaskService {
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final ReactiveTaskRepository reactiveTaskRepository;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final Validator validator;
+
+    private final CacheManager cacheManager;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Clock clock;
+
+    private final SingleFlight<String, TaskTableVersion> versionQueries = new SingleFlight<>();
+
+    ReactiveTaskService(ReactiveTaskRepository reactiveTaskRepository, TransactionalOperator transactionalOperator,
+            Validator validator, CacheManager cacheManager, ApplicationEventPublisher eventPublisher, Clock clock) {
+        this.reactiveTaskRepository = reactiveTaskRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.validator = validator;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+        this.clock = clock;
+    }
+
+    /**
+     * Streams all tasks, ordered by creation date and id.
+     * <p>
+     * Rows are read from the database as the subscriber requests them, so the memory use does not depend on the number
+     * of tasks.
+     * </p>
+     *
+     * @return a stream of all tasks
+     */
+    public Flux<TaskListItem> streamAll() {
+        return reactiveTaskRepository.streamItems(STREAM_FETCH_SIZE);
+    }
+
+    /**
+     * Returns a version token that changes whenever a task is created, without reading any tasks.
+     * <p>
+     * The version is a counter kept in a single row, which every transaction inserting tasks increments, so the cost
+     * does not depend on the number of tasks. Use it to answer conditional requests: as long as the version is the same, so is the list of tasks. When many
+     * clients poll at the same time, callers arriving while a query is running get its result instead of running
+     * another one.
+     * </p>
+     *
+     * @return the current version of the tasks
+     */
+    public Mono<TaskTableVersion> version() {
+        return versionQueries.execute("version", reactiveTaskRepository::findVersion);
+    }
+
+    /**
+     * Creates all the given tasks in a single transaction, with a single batched insert.
+     * <p>
+     * The tasks are validated before anything is inserted. If any of them is invalid, the returned stream fails with a
+     * {@link ConstraintViolationException} and no task is created.
+     * </p>
+     *
+     * @param newTasks
+     *            the tasks to create
+     * @return the created tasks
+     */
+    public Flux<TaskListItem> createTasks(Collection<NewTask> newTasks) {
+        return Flux.defer(() -> reactiveTaskRepository.insertAll(toTasks(newTasks)))
+                .as(transactionalOperator::transactional)
+                .collectList()
+                .doOnNext(created -> {
+                    clearTaskCaches();
+                    created.forEach(task -> eventPublisher.publishEvent(TaskChangedEvent.created(task)));
+                })
+                .flatMapIterable(created -> created);
+    }
+
+    private List<Task> toTasks(Collection<NewTask> newTasks) {
+        var now = clock.instant();
+        var tasks = new ArrayList<Task>(newTasks.size());
+        for (var newTask : newTasks) {
+            var task = new Task();
+            task.setDescription(newTask.description());
+            task.setCreationDate(now);
+            task.setDueDate(newTask.dueDate());
+            var violations = validator.validate(task);
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private void clearTaskCaches() {
+        Stream.of(TaskService.TASK_LISTS_CACHE, TaskService.TASK_SEARCHES_CACHE, TaskService.TASK_COUNTS_CACHE)
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .forEach(cache -> cache.clear());
+    }
+}
@@ -0,0 +1,38 @@
+package cc.fss.vaadin.taskmanagement.service;
+
+import cc.fss.vaadin.taskmanagement.domain.Task;
+import cc.fss.vaadin.taskmanagement.domain.TaskListItem;
+
+import java.util.Objects;
+
+/**
+ * Application event published whenever a task has been created or changed.
+ * <p>
+ * The task services publish this event inside the transaction that changes the task. Listeners that should only see
+ * committed changes should use {@link org.springframework.transaction.event.TransactionalEventListener}, with
+ * {@code fallbackExecution = true} to also receive the events published outside of a transaction.
+ * </p>
+ *
+ * @param type
+ *            what happened to the task
+ * @param task
+ *            the task as it is after the change
+ */
+public record TaskChangedEvent(Type type, TaskListItem task) {
+
+    /**
+     * The kind of change.
+     */
+    public enum Type {
+        CREATED
+    }
+
+    static TaskChangedEvent created(TaskListItem task) {
+        return new TaskChangedEvent(Type.CREATED, task);
+    }
+
+    static TaskChangedEvent created(Task task) {
+        return created(new TaskListItem(Objects.requireNonNull(task.getId()), task.getDescription(),
+                task.getDueDate(), task.getCreationDate()));
+    }
+}
@@ -0,0 +1,20 @@
+package cc.fss.vaadin.taskmanagement.service;
+
+/**
+ * The number of tasks in a listing, either counted exactly or estimated.
+ *
+ * @param value
+ *            the number of tasks
+ * @param exact
+ *            {@code true} if the value is exact, {@code false} if it is an estimate
+ */
+public record TaskCount(long value, boolean exact) {
+
+    public static TaskCount exact(long value) {
+        return new TaskCount(value, true);
+    }
+
+    public static TaskCount estimate(long value) {
+        return new TaskCount(value, false);
+    }
+}
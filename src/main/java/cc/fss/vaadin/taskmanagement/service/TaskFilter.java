@@ -0,0 +1,37 @@
+package cc.fss.vaadin.taskmanagement.service;
+
+import org.jspecify.annotations.Nullable;
+
+import java.time.LocalDate;
+
+/**
+ * Criteria for narrowing down a task listing. All criteria are optional and combined with AND.
+ *
+ * @param dueFrom
+ *            only include tasks due on or after this date, or {@code null} for no lower bound
+ * @param dueTo
+ *            only include tasks due on or before this date, or {@code null} for no upper bound
+ * @param overdueOnly
+ *            only include tasks whose due date has passed
+ * @param descriptionPrefix
+ *            only include tasks whose description starts with this text, ignoring case, or {@code null} (or blank) to
+ *            include all descriptions
+ */
+public record TaskFilter(@Nullable LocalDate dueFrom, @Nullable LocalDate dueTo, boolean overdueOnly,
+        @Nullable String descriptionPrefix) {
+
+    /**
+     * A filter that includes all tasks.
+     */
+    public static final TaskFilter NONE = new TaskFilter(null, null, false, null);
+
+    /**
+     * Returns whether this filter includes all tasks.
+     *
+     * @return {@code true} if none of the criteria are set
+     */
+    public boolean isEmpty() {
+        return dueFrom == null && dueTo == null && !overdueOnly
+                && (descriptionPrefix == null || descriptionPrefix.isBlank());
+    }
+}
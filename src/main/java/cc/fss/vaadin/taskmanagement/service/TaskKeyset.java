@@ -0,0 +1,38 @@
+package cc.fss.vaadin.taskmanagement.service;
+
+import cc.fss.vaadin.taskmanagement.domain.TaskListItem;
+
+import java.time.Instant;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Position of a task in the (creation date, id) ordering, used as the cursor for keyset pagination.
+ * <p>
+ * A page that is fetched "after" a keyset starts with the first task that comes after the given creation date and id.
+ * Keysets are cheap to create from the last task of a page and can be kept around for as long as the ordering stays
+ * the same.
+ * </p>
+ *
+ * @param creationDate
+ *            the creation date of the task
+ * @param id
+ *            the id of the task, used as a tie-breaker for tasks created at the same instant
+ */
+public record TaskKeyset(Instant creationDate, long id) {
+
+    public TaskKeyset {
+        requireNonNull(creationDate);
+    }
+
+    /**
+     * Returns the keyset of the given task.
+     *
+     * @param task
+     *            the task (never {@code null})
+     * @return the keyset of the task
+     */
+    public static TaskKeyset of(TaskListItem task) {
+        return new TaskKeyset(task.creationDate(), task.id());
+    }
+}
@@ -1,31 +1,84 @@
 package cc.fss.vaadin.taskmanagement.service;
 
 import cc.fss.vaadin.taskmanagement.domain.Task;
+import cc.fss.vaadin.taskmanagement.domain.TaskListItem;
 import cc.fss.vaadin.taskmanagement.domain.TaskRepository;
+import cc.fss.vaadin.taskmanagement.domain.TaskSpecifications;
 import org.jspecify.annotations.Nullable;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Clock;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
+/**
+ * Application service for creating and listing tasks.
+ * <p>
+ * Task listings, search results and counts are cached in the {@value #TASK_LISTS_CACHE},
+ * {@value #TASK_SEARCHES_CACHE} and {@value #TASK_COUNTS_CACHE} caches, which are all cleared whenever tasks are
+ * created. The caches are size-bounded and entries expire after a short time, see the {@code spring.cache.*}
+ * properties. Cache lookups are synchronized per key: when several callers ask for the same uncached listing at the
+ * same time, one of them queries the database and the others wait for its result, so a burst of identical requests
+ * costs one query.
+ * </p>
+ * <p>
+ * A {@link TaskChangedEvent} is published for every created task.
+ * </p>
+ */
 @Service
 @PreAuthorize("isAuthenticated()")
 public class TaskService {
 
+    /**
+     * Cache of task listings, see {@link #listAfter(TaskFilter, Sort.Direction, TaskKeyset, int)} and
+     * {@link #list(TaskFilter, Pageable)}.
+     */
+    public static final String TASK_LISTS_CACHE = "taskLists";
+
+    /**
+     * Cache of search results, see {@link #search(String, Pageable)}.
+     */
+    public static final String TASK_SEARCHES_CACHE = "taskSearches";
+
+    /**
+     * Cache of task counts, see {@link #count(TaskFilter)}.
+     */
+    public static final String TASK_COUNTS_CACHE = "taskCounts";
+
+    /**
+     * Up to this many tasks, {@link #count(TaskFilter)} counts exactly.
+     */
+    static final int EXACT_COUNT_LIMIT = 10_000;
+
+    /**
+     * The most rows that a single {@link #seek(TaskFilter, Sort.Direction, TaskKeyset, int, long)} query skips.
+     */
+    static final int MAX_SEEK_OFFSET = 10_000;
+
     private final TaskRepository taskRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     private final Clock clock;
 
-    TaskService(TaskRepository taskRepository, Clock clock) {
+    TaskService(TaskRepository taskRepository, ApplicationEventPublisher eventPublisher, Clock clock) {
         this.taskRepository = taskRepository;
+        this.eventPublisher = eventPublisher;
         this.clock = clock;
     }
 
     @Transactional
+    @CacheEvict(cacheNames = { TASK_LISTS_CACHE, TASK_SEARCHES_CACHE, TASK_COUNTS_CACHE }, allEntries = true)
     public void createTask(String description, @Nullable LocalDate dueDate) {
         if ("fail".equals(description)) {
             throw new RuntimeException("This is for testing the error handler");
@@ -35,6 +88,40 @@ public class TaskService {
         task.setCreationDate(clock.instant());
         task.setDueDate(dueDate);
         taskRepository.saveAndFlush(task);
+        taskRepository.incrementVersion(task.getCreationDate());
+        eventPublisher.publishEvent(TaskChangedEvent.created(task));
+    }
+
+    /**
+     * Creates all the given tasks in a single transaction.
+     * <p>
+     * Unlike calling {@link #createTask(String, LocalDate)} repeatedly, the tasks are flushed together, so Hibernate
+     * sends the inserts to the database in JDBC batches and fetches ids from {@code task_seq} once per allocation block
+     * instead of once per task.
+     * </p>
+     *
+     * @param newTasks
+     *            the tasks to create
+     */
+    @Transactional
+    @CacheEvict(cacheNames = { TASK_LISTS_CACHE, TASK_SEARCHES_CACHE, TASK_COUNTS_CACHE }, allEntries = true)
+    public void createTasks(Collection<NewTask> newTasks) {
+        var now = clock.instant();
+        var tasks = new ArrayList<Task>(newTasks.size());
+        for (var newTask : newTasks) {
+            var task = new Task();
+            task.setDescription(newTask.description());
+            task.setCreationDate(now);
+            task.setDueDate(newTask.dueDate());
+            tasks.add(task);
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+        taskRepository.saveAll(tasks);
+        taskRepository.flush();
+        taskRepository.incrementVersion(now);
+        tasks.forEach(task -> eventPublisher.publishEvent(TaskChangedEvent.created(task)));
     }
 
     @Transactional(readOnly = true)
@@ -42,4 +129,185 @@ public class TaskService {
         return taskRepository.findAllBy(pageable).toList();
     }
 
+    /**
+     * Returns up to {@code limit} tasks matching the filter, ordered by creation date and id, starting right after the
+     * given keyset.
+     * <p>
+     * Unlike {@link #list(TaskFilter, Pageable)}, this method does not use an offset, so fetching a page deep into the
+     * table is as fast as fetching the first one. To fetch the next page, pass the keyset of the last task of the
+     * current page, together with the same filter and direction.
+     * </p>
+     *
+     * @param filter
+     *            the filter to apply
+     * @param direction
+     *            whether to list the oldest or the newest tasks first
+     * @param after
+     *            the keyset of the last task of the previous page, or {@code null} to start from the beginning
+     * @param limit
+     *            the maximum number of tasks to return
+     * @return the tasks following the keyset
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = TASK_LISTS_CACHE, sync = true)
+    public List<TaskListItem> listAfter(TaskFilter filter, Sort.Direction direction, @Nullable TaskKeyset after, int limit) {
+        var specification = toSpecification(filter);
+        if (after != null) {
+            specification = specification.and(TaskSpecifications.after(after.creationDate(), after.id(), direction));
+        }
+        return taskRepository.findItems(specification, TaskSpecifications.keysetSort(direction), 0, limit);
+    }
+
+    /**
+     * Returns the keyset of the task {@code skip} positions after the given keyset, without reading the tasks in
+     * between.
+     * <p>
+     * Use this to jump far ahead in a keyset-paged listing: the database skips the rows with offset queries that start
+     * at the given keyset, and only the keyset of the target row is returned. No query skips more than
+     * {@value #MAX_SEEK_OFFSET} rows; longer distances are covered in steps of that many rows, each continuing from the
+     * keyset the previous one found. When the caller knows how many tasks follow the keyset and the target is closer to
+     * the last of them, the rows are skipped from the end of the listing in the reversed direction instead. The result
+     * is not cached, as it is only needed to continue with
+     * {@link #listAfter(TaskFilter, Sort.Direction, TaskKeyset, int)}.
+     * </p>
+     *
+     * @param filter
+     *            the filter to apply
+     * @param direction
+     *            whether the oldest or the newest tasks come first
+     * @param after
+     *            the keyset to start from, or {@code null} to start from the beginning
+     * @param skip
+     *            the number of tasks to skip, at least 1
+     * @param following
+     *            the number of tasks matching the filter that follow the keyset, or {@code -1} if not known
+     * @return the keyset of the last skipped task, or {@code null} if fewer than {@code skip} tasks follow the keyset
+     */
+    @Transactional(readOnly = true)
+    public @Nullable TaskKeyset seek(TaskFilter filter, Sort.Direction direction, @Nullable TaskKeyset after,
+            int skip, long following) {
+        var specification = toSpecification(filter);
+        var seekDirection = direction;
+        var position = after;
+        long remaining = skip;
+        if (following >= 0 && following - skip < skip) {
+            if (skip > following) {
+                return null;
+            }
+            // The target is closer to the last task, so count back from there
+            if (after != null) {
+                specification = specification.and(
+                        TaskSpecifications.after(after.creationDate(), after.id(), direction));
+            }
+            seekDirection = direction.isAscending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+            position = null;
+            remaining = following - skip + 1;
+        }
+        for (; remaining > 0; remaining -= MAX_SEEK_OFFSET) {
+            var stepSpecification = position == null ? specification : specification
+                    .and(TaskSpecifications.after(position.creationDate(), position.id(), seekDirection));
+            var step = (int) Math.min(remaining, MAX_SEEK_OFFSET);
+            var target = taskRepository.findItems(stepSpecification, TaskSpecifications.keysetSort(seekDirection),
+                    step - 1, 1);
+            if (target.isEmpty()) {
+                return null;
+            }
+            position = TaskKeyset.of(target.get(0));
+        }
+        return position;
+    }
+
+    /**
+     * Returns a page of the tasks matching the filter, in the order given by the pageable.
+     * <p>
+     * Filtering, sorting and paging all happen in the database. No count query is executed. An unpaged pageable returns
+     * all matching tasks. Prefer
+     * {@link #listAfter(TaskFilter, Sort.Direction, TaskKeyset, int)} when the tasks are ordered by creation date.
+     * </p>
+     *
+     * @param filter
+     *            the filter to apply
+     * @param pageable
+     *            the page to return and its sort order
+     * @return the tasks on the page
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = TASK_LISTS_CACHE, sync = true)
+    public List<TaskListItem> list(TaskFilter filter, Pageable pageable) {
+        // Tie-break on the id so that pages don't overlap when the sorted values are equal
+        var sort = pageable.getSort().and(Sort.by("id"));
+        if (pageable.isUnpaged()) {
+            return taskRepository.findItems(toSpecification(filter), sort, 0, Integer.MAX_VALUE);
+        }
+        return taskRepository.findItems(toSpecification(filter), sort, pageable.getOffset(), pageable.getPageSize());
+    }
+
+    /**
+     * Returns the number of tasks matching the filter, or an estimate of it when counting exactly would be expensive.
+     * <p>
+     * Without a filter, the count comes from the table statistics of the database when the table is large, so it costs
+     * the same regardless of the number of tasks. With a filter, the tasks are counted exactly if there are at most a
+     * few thousand of them. Otherwise, the returned estimate only tells that there are more than that.
+     * </p>
+     *
+     * @param filter
+     *            the filter to apply
+     * @return the exact or estimated number of matching tasks
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = TASK_COUNTS_CACHE, sync = true)
+    public TaskCount count(TaskFilter filter) {
+        if (filter.isEmpty()) {
+            var estimate = taskRepository.estimateCount();
+            if (estimate > EXACT_COUNT_LIMIT) {
+                return TaskCount.estimate(estimate);
+            }
+            return TaskCount.exact(taskRepository.count());
+        }
+        var matches = taskRepository.countUpTo(toSpecification(filter), EXACT_COUNT_LIMIT + 1);
+        return matches > EXACT_COUNT_LIMIT ? TaskCount.estimate(matches) : TaskCount.exact(matches);
+    }
+
+    /**
+     * Searches the task descriptions and returns a page of the matches, best matches first.
+     * <p>
+     * On PostgreSQL, this is an indexed full-text search. The search text uses web search syntax: words are combined
+     * with AND, {@code "quoted phrases"} must match in order, {@code or} combines alternatives and {@code -word}
+     * excludes a word. The sort order of the pageable is ignored.
+     * </p>
+     *
+     * @param searchText
+     *            the text to search for
+     * @param pageable
+     *            the page to return
+     * @return the matching tasks on the page, or an empty list if the search text is blank
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = TASK_SEARCHES_CACHE, sync = true)
+    public List<TaskListItem> search(String searchText, Pageable pageable) {
+        if (searchText.isBlank()) {
+            return List.of();
+        }
+        return taskRepository.search(searchText.strip(), pageable.getOffset(), pageable.getPageSize());
+    }
+
+    private Specification<Task> toSpecification(TaskFilter filter) {
+        var specifications = new ArrayList<Specification<Task>>();
+        var dueFrom = filter.dueFrom();
+        if (dueFrom != null) {
+            specifications.add(TaskSpecifications.dueOnOrAfter(dueFrom));
+        }
+        var dueTo = filter.dueTo();
+        if (dueTo != null) {
+            specifications.add(TaskSpecifications.dueOnOrBefore(dueTo));
+        }
+        if (filter.overdueOnly()) {
+            specifications.add(TaskSpecifications.dueBefore(LocalDate.now(clock)));
+        }
+        var descriptionPrefix = filter.descriptionPrefix();
+        if (descriptionPrefix != null && !descriptionPrefix.isBlank()) {
+            specifications.add(TaskSpecifications.descriptionStartsWith(descriptionPrefix.strip()));
+        }
+        return Specification.allOf(specifications);
+    }
 }
@@ -0,0 +1,140 @@
+package cc.fss.vaadin.taskmanagement.ui.view;
+
+import cc.fss.vaadin.taskmanagement.domain.TaskListItem;
+import cc.fss.vaadin.taskmanagement.service.TaskFilter;
+import cc.fss.vaadin.taskmanagement.service.TaskKeyset;
+import cc.fss.vaadin.taskmanagement.service.TaskService;
+import com.vaadin.flow.data.provider.CallbackDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.SortDirection;
+import org.jspecify.annotations.Nullable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static com.vaadin.flow.spring.data.VaadinSpringDataHelpers.toSpringPageRequest;
+
+/**
+ * Lazy grid fetch callback that filters, sorts and pages tasks in the database.
+ * <p>
+ * When the grid is unsorted or sorted by creation date, the callback pages with keyset pagination. The grid asks for
+ * items by offset and limit, so the callback remembers the keyset of the task just before every offset it has served,
+ * and continues the next range from that keyset instead of making the database skip all preceding rows. When the grid
+ * asks for an offset it hasn't seen (for example after a big jump in the scroll position), the callback skips forward
+ * from the closest known keyset with offset queries that only return the keyset of the target row, or back from the
+ * end of the listing when the tasks have been counted exactly and the target is closer to the end. Any other sort
+ * order falls back to offset paging.
+ * </p>
+ * <p>
+ * While a search text is set, the callback lists the search results instead, best matches first. The filter and the
+ * sort order of the grid are ignored for search results.
+ * </p>
+ * <p>
+ * The remembered keysets are only valid for the data they were read from. Call {@link #reset()} before refreshing the
+ * grid after the data has changed.
+ * </p>
+ */
+class TaskFetchCallback implements CallbackDataProvider.FetchCallback<TaskListItem, Void> {
+
+    static final String CREATION_DATE_SORT_PROPERTY = "creationDate";
+
+    private final TaskService taskService;
+
+    private final NavigableMap<Integer, @Nullable TaskKeyset> keysetsByOffset = new TreeMap<>();
+
+    private TaskFilter filter = TaskFilter.NONE;
+
+    private String searchText = "";
+
+    private Sort.Direction keysetDirection = Sort.Direction.ASC;
+
+    TaskFetchCallback(TaskService taskService) {
+        this.taskService = taskService;
+        reset();
+    }
+
+    @Override
+    public Stream<TaskListItem> fetch(Query<TaskListItem, Void> query) {
+        var sortOrders = query.getSortOrders();
+        if (!searchText.isBlank()) {
+            return taskService.search(searchText, PageRequest.of(query.getPage(), query.getPageSize())).stream();
+        } else if (sortOrders.isEmpty()) {
+            return fetchByKeyset(query.getOffset(), query.getLimit(), Sort.Direction.ASC);
+        } else if (sortOrders.size() == 1 && CREATION_DATE_SORT_PROPERTY.equals(sortOrders.get(0).getSorted())) {
+            var direction = sortOrders.get(0).getDirection() == SortDirection.DESCENDING ? Sort.Direction.DESC
+                    : Sort.Direction.ASC;
+            return fetchByKeyset(query.getOffset(), query.getLimit(), direction);
+        } else {
+            return taskService.list(filter, toSpringPageRequest(query)).stream();
+        }
+    }
+
+    /**
+     * Sets the filter to apply to the tasks, and forgets all remembered keysets.
+     *
+     * @param filter
+     *            the filter (never {@code null})
+     */
+    void setFilter(TaskFilter filter) {
+        this.filter = filter;
+        reset();
+    }
+
+    /**
+     * Sets the text to search for, or a blank text to list the tasks matching the filter.
+     *
+     * @param searchText
+     *            the search text (never {@code null})
+     */
+    void setSearchText(String searchText) {
+        this.searchText = searchText;
+    }
+
+    /**
+     * Forgets all remembered keysets, so that the next fetch starts from the beginning.
+     */
+    void reset() {
+        keysetsByOffset.clear();
+        keysetsByOffset.put(0, null);
+    }
+
+    private Stream<TaskListItem> fetchByKeyset(int offset, int limit, Sort.Direction direction) {
+        if (direction != keysetDirection) {
+            keysetDirection = direction;
+            reset();
+        }
+
+        var start = keysetsByOffset.floorEntry(offset);
+        var after = start.getValue();
+        if (start.getKey() < offset) {
+            after = taskService.seek(filter, direction, after, offset - start.getKey(), following(start.getKey()));
+            if (after == null) {
+                return Stream.empty();
+            }
+            keysetsByOffset.put(offset, after);
+        }
+
+        var tasks = taskService.listAfter(filter, direction, after, limit);
+        if (!tasks.isEmpty()) {
+            remember(offset + tasks.size(), tasks);
+        }
+        return tasks.stream();
+    }
+
+    /**
+     * Returns the number of tasks after the given offset if the tasks have been counted exactly, so that a seek close to
+     * the end can start from there, or {@code -1} if only an estimate is known.
+     */
+    private long following(int offset) {
+        var count = taskService.count(filter);
+        return count.exact() ? Math.max(count.value() - offset, 0) : -1;
+    }
+
+    private void remember(int offset, List<TaskListItem> tasks) {
+        keysetsByOffset.put(offset, TaskKeyset.of(tasks.get(tasks.size() - 1)));
+    }
+}
@@ -2,15 +2,21 @@ package cc.fss.vaadin.taskmanagement.ui.view;
 
 import cc.fss.vaadin.base.ui.component.ViewToolbar;
 import cc.fss.vaadin.taskmanagement.domain.Task;
+import cc.fss.vaadin.taskmanagement.domain.TaskListItem;
+import cc.fss.vaadin.taskmanagement.service.TaskCount;
+import cc.fss.vaadin.taskmanagement.service.TaskFilter;
 import cc.fss.vaadin.taskmanagement.service.TaskService;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.checkbox.Checkbox;
 import com.vaadin.flow.component.datepicker.DatePicker;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.html.Main;
+import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.Menu;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
@@ -22,8 +28,6 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
 import java.util.Optional;
 
-import static com.vaadin.flow.spring.data.VaadinSpringDataHelpers.toSpringPageRequest;
-
 @Route("task-list")
 @PageTitle("Task List")
 @Menu(order = 0, icon = "vaadin:clipboard-check", title = "Task List")
@@ -32,13 +36,23 @@ public class TaskListView extends Main {
 
     private final TaskService taskService;
 
+    private final TaskFetchCallback taskFetchCallback;
+
+    private TaskFilter filter = TaskFilter.NONE;
+
     final TextField description;
     final DatePicker dueDate;
     final Button createBtn;
-    final Grid<Task> taskGrid;
+    final TextField searchField;
+    final TextField descriptionPrefixFilter;
+    final DatePicker dueFromFilter;
+    final DatePicker dueToFilter;
+    final Checkbox overdueFilter;
+    final Grid<TaskListItem> taskGrid;
 
     public TaskListView(TaskService taskService, Clock clock) {
         this.taskService = taskService;
+        this.taskFetchCallback = new TaskFetchCallback(taskService);
 
         description = new TextField();
         description.setPlaceholder("What do you want to do?");
@@ -53,28 +67,100 @@ public class TaskListView extends Main {
         createBtn = new Button("Create", event -> createTask());
         createBtn.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
 
+        searchField = new TextField();
+        searchField.setPlaceholder("Search");
+        searchField.setAriaLabel("Search tasks");
+        searchField.setPrefixComponent(VaadinIcon.SEARCH.create());
+        searchField.setClearButtonVisible(true);
+        searchField.setValueChangeMode(ValueChangeMode.LAZY);
+        searchField.addValueChangeListener(event -> search());
+
+        descriptionPrefixFilter = new TextField();
+        descriptionPrefixFilter.setPlaceholder("Description starts with");
+        descriptionPrefixFilter.setAriaLabel("Description starts with");
+        descriptionPrefixFilter.setClearButtonVisible(true);
+        descriptionPrefixFilter.setValueChangeMode(ValueChangeMode.LAZY);
+        descriptionPrefixFilter.addValueChangeListener(event -> applyFilter());
+
+        dueFromFilter = new DatePicker();
+        dueFromFilter.setPlaceholder("Due from");
+        dueFromFilter.setAriaLabel("Due from");
+        dueFromFilter.setClearButtonVisible(true);
+        dueFromFilter.addValueChangeListener(event -> applyFilter());
+
+        dueToFilter = new DatePicker();
+        dueToFilter.setPlaceholder("Due to");
+        dueToFilter.setAriaLabel("Due to");
+        dueToFilter.setClearButtonVisible(true);
+        dueToFilter.addValueChangeListener(event -> applyFilter());
+
+        overdueFilter = new Checkbox("Overdue only");
+        overdueFilter.addValueChangeListener(event -> applyFilter());
+
         var dateTimeFormatter = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM).withZone(clock.getZone())
                 .withLocale(getLocale());
         var dateFormatter = DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM).withLocale(getLocale());
 
         taskGrid = new Grid<>();
-        taskGrid.setItems(query -> taskService.list(toSpringPageRequest(query)).stream());
-        taskGrid.addColumn(Task::getDescription).setHeader("Description");
-        taskGrid.addColumn(task -> Optional.ofNullable(task.getDueDate()).map(dateFormatter::format).orElse("Never"))
-                .setHeader("Due Date");
-        taskGrid.addColumn(task -> dateTimeFormatter.format(task.getCreationDate())).setHeader("Creation Date");
+        taskGrid.setItems(taskFetchCallback);
+        taskGrid.addColumn(TaskListItem::description).setHeader("Description").setSortProperty("description");
+        taskGrid.addColumn(task -> Optional.ofNullable(task.dueDate()).map(dateFormatter::format).orElse("Never"))
+                .setHeader("Due Date").setSortProperty("dueDate");
+        taskGrid.addColumn(task -> dateTimeFormatter.format(task.creationDate())).setHeader("Creation Date")
+                .setSortProperty(TaskFetchCallback.CREATION_DATE_SORT_PROPERTY);
         taskGrid.setSizeFull();
+        updateItemCount();
 
         setSizeFull();
         addClassNames(LumoUtility.BoxSizing.BORDER, LumoUtility.Display.FLEX, LumoUtility.FlexDirection.COLUMN,
                 LumoUtility.Padding.MEDIUM, LumoUtility.Gap.SMALL);
 
         add(new ViewToolbar("Task List", ViewToolbar.group(description, dueDate, createBtn)));
+        add(ViewToolbar.group(searchField, descriptionPrefixFilter, dueFromFilter, dueToFilter, overdueFilter));
         add(taskGrid);
     }
 
+    private void search() {
+        var searching = !searchField.getValue().isBlank();
+        // Search results are ranked by relevance, so the filters don't apply to them
+        descriptionPrefixFilter.setEnabled(!searching);
+        dueFromFilter.setEnabled(!searching);
+        dueToFilter.setEnabled(!searching);
+        overdueFilter.setEnabled(!searching);
+        taskFetchCallback.setSearchText(searchField.getValue());
+        updateItemCount();
+        taskGrid.getDataProvider().refreshAll();
+    }
+
+    private void applyFilter() {
+        filter = new TaskFilter(dueFromFilter.getValue(), dueToFilter.getValue(), overdueFilter.getValue(),
+                descriptionPrefixFilter.getValue());
+        taskFetchCallback.setFilter(filter);
+        updateItemCount();
+        taskGrid.getDataProvider().refreshAll();
+    }
+
+    private void updateItemCount() {
+        var dataView = taskGrid.getLazyDataView();
+        if (!searchField.getValue().isBlank()) {
+            // Search results are not counted; the grid grows its estimate while scrolling
+            dataView.setItemCountUnknown();
+            return;
+        }
+        TaskCount count = taskService.count(filter);
+        var value = (int) Math.min(count.value(), Integer.MAX_VALUE);
+        if (count.exact()) {
+            dataView.setItemCountCallback(query -> value);
+        } else {
+            dataView.setItemCountUnknown();
+            dataView.setItemCountEstimate(value);
+        }
+    }
+
     private void createTask() {
         taskService.createTask(description.getValue(), dueDate.getValue());
+        taskFetchCallback.reset();
+        updateItemCount();
         taskGrid.getDataProvider().refreshAll();
         description.clear();
         dueDate.clear();
@@ -0,0 +1,69 @@
+package cc.fss.vaadin.webflux.handler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 并发限制过滤器
+ * 全局同时处理的 WebFlux 路由请求（{@value #PATH_PREFIX} 下）不超过 {@code max-in-flight}，
+ * 超出的请求返回 429 和 {@code Retry-After}。
+ * <p>
+ * 与按用户限流的 {@link RateLimitFilter} 不同，这里是 {@link WebFilter}：
+ * 请求从进入过滤器开始计数，直到响应体写完、出错或客户端断开才释放，
+ * 因此 SSE 和导出这类长时间写出响应体的请求在整个过程中都占用名额。
+ * 同时处理的请求数以 {@code webflux.rate.limit.in.flight} 指标发布，
+ * 被拒绝的请求计入 {@code webflux.rate.limit.rejected}（{@code reason=concurrency}）。
+ * </p>
+ */
+@Component
+public class ConcurrencyLimitFilter implements WebFilter {
+
+    static final String PATH_PREFIX = "/api/webflux/";
+
+    private final int maxInFlight;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Counter rejected;
+
+    public ConcurrencyLimitFilter(@Value("${app.webflux.rate-limit.max-in-flight:200}") int maxInFlight,
+            MeterRegistry meterRegistry) {
+        this.maxInFlight = maxInFlight;
+        this.rejected = Counter.builder("webflux.rate.limit.rejected")
+                .description("Requests rejected by the rate limiter").tag("reason", "concurrency")
+                .register(meterRegistry);
+        Gauge.builder("webflux.rate.limit.in.flight", inFlight, AtomicInteger::get)
+                .description("Requests currently being handled, including writing the response body")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!exchange.getRequest().getPath().value().startsWith(PATH_PREFIX)) {
+            return chain.filter(exchange);
+        }
+        return Mono.defer(() -> {
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                rejected.increment();
+                var response = exchange.getResponse();
+                response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+                return response.setComplete();
+            }
+            // chain.filter 在响应体写完后才完成
+            return chain.filter(exchange).doFinally(signal -> inFlight.decrementAndGet());
+        });
+    }
+}
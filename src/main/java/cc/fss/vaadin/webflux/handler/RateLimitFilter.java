@@ -0,0 +1,91 @@
+package cc.fss.vaadin.webflux.handler;
+
+import cc.fss.vaadin.security.CurrentUser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流过滤器
+ * 应用在 {@code WebFluxConfig} 的所有路由上：每个用户（按 {@code UserId}，未登录时按客户端地址）一个令牌桶，
+ * 持续速率为 {@code requests-per-second}，突发上限为 {@code burst}，超出限制的请求返回 429 和 {@code Retry-After}。
+ * <p>
+ * 令牌桶保存在 Caffeine 缓存中（分段的并发结构），长时间不活跃的用户会被移除；
+ * 令牌桶本身只使用 CAS，不加锁，因此限流器不会成为争用点。
+ * 被拒绝的请求数以 {@code webflux.rate.limit.rejected}（{@code reason=rate}）指标发布。
+ * 全局同时处理的请求数由 {@link ConcurrencyLimitFilter} 限制。
+ * </p>
+ */
+@Component
+public class RateLimitFilter implements HandlerFilterFunction<ServerResponse, ServerResponse> {
+
+    private static final String ANONYMOUS_KEY_PREFIX = "address:";
+
+    private final CurrentUser currentUser;
+
+    private final double requestsPerSecond;
+
+    private final int burst;
+
+    private final Cache<String, TokenBucket> buckets;
+
+    private final Counter rateRejected;
+
+    public RateLimitFilter(CurrentUser currentUser,
+            @Value("${app.webflux.rate-limit.requests-per-second:20}") double requestsPerSecond,
+            @Value("${app.webflux.rate-limit.burst:40}") int burst, MeterRegistry meterRegistry) {
+        this.currentUser = currentUser;
+        this.requestsPerSecond = requestsPerSecond;
+        this.burst = burst;
+        // 空闲超过令牌桶装满所需时间的用户，重新创建的令牌桶与原来的状态相同，可以安全移除
+        var refillTime = Duration.ofNanos((long) (burst / requestsPerSecond * 1_000_000_000L));
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(refillTime.plusMinutes(1))
+                .maximumSize(100_000)
+                .build();
+        this.rateRejected = Counter.builder("webflux.rate.limit.rejected")
+                .description("Requests rejected by the rate limiter").tag("reason", "rate").register(meterRegistry);
+    }
+
+    @Override
+    public Mono<ServerResponse> filter(ServerRequest request, HandlerFunction<ServerResponse> next) {
+        return clientKey(request).flatMap(key -> {
+            var now = System.nanoTime();
+            var waitNanos = buckets.get(key, k -> new TokenBucket(requestsPerSecond, burst, now)).tryAcquire(now);
+            if (waitNanos > 0) {
+                rateRejected.increment();
+                return tooManyRequests(TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+            }
+            return next.handle(request);
+        });
+    }
+
+    private Mono<String> clientKey(ServerRequest request) {
+        return request.principal()
+                .flatMap(principal -> Mono.justOrEmpty(currentUser.get(principal)))
+                .map(user -> "user:" + user.getUserId())
+                .switchIfEmpty(Mono.fromSupplier(() -> ANONYMOUS_KEY_PREFIX + request.remoteAddress()
+                        .map(address -> address.getAddress() == null ? address.getHostString()
+                                : address.getAddress().getHostAddress())
+                        .orElse("unknown")));
+    }
+
+    private static Mono<ServerResponse> tooManyRequests(long retryAfterSeconds) {
+        return ServerResponse.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .build();
+    }
+}
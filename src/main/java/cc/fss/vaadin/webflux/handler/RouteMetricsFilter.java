@@ -0,0 +1,119 @@
+package cc.fss.vaadin.webflux.handler;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 路由指标过滤器
+ * 应用在 {@code WebFluxConfig} 的所有路由上，按路由模式（例如 {@code /api/webflux/tasks}，而不是实际路径）发布：
+ * <ul>
+ *   <li>{@code webflux.route.requests}：处理耗时，带百分位直方图，
+ *       按 {@code method}、{@code route}、{@code status}、{@code outcome} 和 {@code exception} 区分，
+ *       错误率由 {@code outcome} 为 {@code SERVER_ERROR} 或 {@code CLIENT_ERROR} 的请求数计算</li>
+ *   <li>{@code webflux.route.in.flight}：每个路由正在处理的请求数</li>
+ * </ul>
+ * <p>
+ * 应作为最外层的过滤器，这样被限流拒绝的请求也会被统计。
+ * 耗时统计的是处理函数生成响应的过程，流式响应体的写出不计算在内。
+ * </p>
+ */
+@Component
+public class RouteMetricsFilter implements HandlerFilterFunction<ServerResponse, ServerResponse> {
+
+    private static final String UNKNOWN_ROUTE = "UNKNOWN";
+
+    private static final Duration MAX_EXPECTED_DURATION = Duration.ofSeconds(30);
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    public RouteMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<ServerResponse> filter(ServerRequest request, HandlerFunction<ServerResponse> next) {
+        var route = route(request);
+        var method = request.method().name();
+        var routeInFlight = inFlight.computeIfAbsent(route, this::registerInFlightGauge);
+        return Mono.defer(() -> {
+            routeInFlight.incrementAndGet();
+            var sample = Timer.start(meterRegistry);
+            return next.handle(request)
+                    .doOnSuccess(response -> sample.stop(timer(method, route,
+                            response == null ? HttpStatus.OK : response.statusCode(), null)))
+                    .doOnError(ex -> sample.stop(timer(method, route, HttpStatus.INTERNAL_SERVER_ERROR, ex)))
+                    .doOnCancel(() -> sample.stop(timer(method, route, null, null)))
+                    .doFinally(signal -> routeInFlight.decrementAndGet());
+        });
+    }
+
+    private static String route(ServerRequest request) {
+        return request.attribute(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE)
+                .map(pattern -> pattern instanceof PathPattern pathPattern ? pathPattern.getPatternString()
+                        : pattern.toString())
+                .orElse(UNKNOWN_ROUTE);
+    }
+
+    private AtomicInteger registerInFlightGauge(String route) {
+        var count = new AtomicInteger();
+        Gauge.builder("webflux.route.in.flight", count, AtomicInteger::get)
+                .description("Requests currently being handled, per route")
+                .tag("route", route)
+                .register(meterRegistry);
+        return count;
+    }
+
+    /**
+     * 返回请求结果对应的计时器，{@code status} 为 {@code null} 表示客户端在响应生成之前取消了请求
+     */
+    private Timer timer(String method, String route, @Nullable HttpStatusCode status, @Nullable Throwable exception) {
+        return Timer.builder("webflux.route.requests")
+                .description("Time taken to handle requests, per route")
+                .tags(Tags.of("method", method, "route", route,
+                        "status", status == null ? "CANCELLED" : String.valueOf(status.value()),
+                        "outcome", outcome(status),
+                        "exception", exception == null ? "none" : exception.getClass().getSimpleName()))
+                .publishPercentileHistogram()
+                .maximumExpectedValue(MAX_EXPECTED_DURATION)
+                .register(meterRegistry);
+    }
+
+    private static String outcome(@Nullable HttpStatusCode status) {
+        if (status == null) {
+            return "UNKNOWN";
+        }
+        if (status.is2xxSuccessful()) {
+            return "SUCCESS";
+        }
+        if (status.is3xxRedirection()) {
+            return "REDIRECTION";
+        }
+        if (status.is4xxClientError()) {
+            return "CLIENT_ERROR";
+        }
+        if (status.is5xxServerError()) {
+            return "SERVER_ERROR";
+        }
+        return "INFORMATIONAL";
+    }
+}
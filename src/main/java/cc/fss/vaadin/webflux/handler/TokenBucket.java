@@ -0,0 +1,52 @@
+package cc.fss.vaadin.webflux.handler;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶
+ * 以 GCRA（通用信元速率算法）实现：只保存一个“理论到达时间”，取令牌就是用 CAS 把它向后推一个发放间隔，
+ * 不需要加锁，也不需要定时补充令牌。
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+
+    private final long burstToleranceNanos;
+
+    private final AtomicLong theoreticalArrivalTime;
+
+    /**
+     * @param permitsPerSecond
+     *            持续速率
+     * @param burst
+     *            桶容量，即空闲之后最多可以连续通过的请求数
+     * @param nowNanos
+     *            当前时间（{@link System#nanoTime()}）
+     */
+    TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1L);
+        this.theoreticalArrivalTime = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * 尝试取一个令牌
+     *
+     * @param nowNanos
+     *            当前时间（{@link System#nanoTime()}）
+     * @return {@code 0} 表示取到了令牌，否则为下一个令牌可用前需要等待的纳秒数
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            var tat = theoreticalArrivalTime.get();
+            var start = Math.max(tat, nowNanos);
+            var waitNanos = start - nowNanos - burstToleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, start + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -1,16 +1,44 @@
 package cc.fss.vaadin.webflux.handler;
 
-import cc.fss.vaadin.taskmanagement.domain.Task;
-import cc.fss.vaadin.taskmanagement.service.TaskService;
+import cc.fss.vaadin.taskmanagement.domain.TaskListItem;
+import cc.fss.vaadin.taskmanagement.domain.TaskTableVersion;
+import cc.fss.vaadin.taskmanagement.service.NewTask;
+import cc.fss.vaadin.taskmanagement.service.ReactiveTaskService;
+import cc.fss.vaadin.taskmanagement.service.TaskChangedEvent;
+import cc.fss.vaadin.webflux.service.TaskChangeStream;
+import cc.fss.vaadin.webflux.service.WebFluxService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import org.springframework.data.domain.Pageable;
+import java.util.function.Function;
 
 /**
  * WebFlux处理器
@@ -19,10 +47,60 @@ import org.springframework.data.domain.Pageable;
 @Component
 public class WebFluxHandler {
 
-    private final TaskService taskService;
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
 
-    public WebFluxHandler(TaskService taskService) {
-        this.taskService = taskService;
+    /**
+     * Smile 格式（二进制 JSON），由 {@code Jackson2SmileEncoder} 编码
+     */
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    /**
+     * CBOR 序列（RFC 8742）：逐个编码的 CBOR 值首尾相接，可以边读边写
+     */
+    public static final MediaType APPLICATION_CBOR_SEQ = new MediaType("application", "cbor-seq");
+
+    /**
+     * 任务列表可以输出的格式，按优先顺序排列
+     */
+    private static final List<MediaType> TASK_LIST_MEDIA_TYPES = List.of(MediaType.APPLICATION_JSON,
+            MediaType.APPLICATION_CBOR, APPLICATION_CBOR_SEQ, APPLICATION_SMILE);
+
+    private static final ResolvableType TASK_LIST_ITEM_TYPE = ResolvableType.forClass(TaskListItem.class);
+
+    private static final String CSV_HEADER = "id,description,due_date,creation_date\n";
+
+    private static final ParameterizedTypeReference<Map<String, Object>> DATA_TYPE = new ParameterizedTypeReference<>() {
+    };
+
+    private final ReactiveTaskService reactiveTaskService;
+
+    private final TaskChangeStream taskChangeStream;
+
+    private final WebFluxService webFluxService;
+
+    private final int bulkDefaultConcurrency;
+
+    private final int bulkMaxConcurrency;
+
+    private final Jackson2CborEncoder cborEncoder;
+
+    private final Jackson2SmileEncoder smileEncoder;
+
+    private final Duration keepAliveInterval;
+
+    public WebFluxHandler(ReactiveTaskService reactiveTaskService, TaskChangeStream taskChangeStream,
+            WebFluxService webFluxService, Jackson2CborEncoder cborEncoder, Jackson2SmileEncoder smileEncoder,
+            @Value("${app.webflux.bulk.default-concurrency:16}") int bulkDefaultConcurrency,
+            @Value("${app.webflux.bulk.max-concurrency:64}") int bulkMaxConcurrency,
+            @Value("${app.webflux.task-changes.keep-alive:15s}") Duration keepAliveInterval) {
+        this.reactiveTaskService = reactiveTaskService;
+        this.taskChangeStream = taskChangeStream;
+        this.webFluxService = webFluxService;
+        this.bulkDefaultConcurrency = bulkDefaultConcurrency;
+        this.bulkMaxConcurrency = bulkMaxConcurrency;
+        this.cborEncoder = cborEncoder;
+        this.smileEncoder = smileEncoder;
+        this.keepAliveInterval = keepAliveInterval;
     }
 
     /**
@@ -62,11 +140,238 @@ public class WebFluxHandler {
                 .flatMap(result -> ServerResponse.ok().bodyValue(result));
     }
 
+    /**
+     * 批量处理数据端点
+     * 请求体和响应体都是 NDJSON：每读到一行就开始处理，每处理完一项就写出一行结果，不需要等待整个请求体。
+     * {@code ?concurrency=} 指定同时处理的项数（超过上限时按上限处理），
+     * {@code ?ordered=true} 时按输入顺序输出结果，默认按完成顺序输出。
+     * 每行结果的 {@code index} 是对应输入的序号（从 0 开始）。
+     */
+    public Mono<ServerResponse> processBulk(ServerRequest request) {
+        int concurrency;
+        try {
+            concurrency = request.queryParam("concurrency").map(Integer::parseInt).orElse(bulkDefaultConcurrency);
+        } catch (NumberFormatException ex) {
+            return ServerResponse.badRequest().bodyValue(Map.of("error", "concurrency must be an integer"));
+        }
+        if (concurrency < 1) {
+            return ServerResponse.badRequest().bodyValue(Map.of("error", "concurrency must be at least 1"));
+        }
+        var ordered = request.queryParam("ordered").map(Boolean::parseBoolean).orElse(false);
+        var results = webFluxService.processComplexData(request.bodyToFlux(DATA_TYPE),
+                Math.min(concurrency, bulkMaxConcurrency), ordered);
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(results, DATA_TYPE);
+    }
+
     /**
      * 获取任务列表端点
+     * 通过 R2DBC 逐批读取任务，边读边写出。根据 {@code Accept} 输出以下格式，都是流式写出的：
+     * <ul>
+     *   <li>JSON 数组</li>
+     *   <li>CBOR 不定长数组（{@code application/cbor}）</li>
+     *   <li>CBOR 序列（{@code application/cbor-seq}），每个任务是一个独立的 CBOR 值</li>
+     *   <li>Smile 数组</li>
+     * </ul>
+     * {@code Accept} 中没有可以输出的格式时返回 406。
+     * 支持条件请求：数据没有变化时返回 304，不读取任何任务。
      */
     public Mono<ServerResponse> getTasks(ServerRequest request) {
+        var mediaType = negotiate(request, TASK_LIST_MEDIA_TYPES);
+        if (mediaType == null) {
+            return ServerResponse.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+        return ifModified(request, mediaType.getSubtype(), response -> {
+            response.contentType(mediaType).varyBy(HttpHeaders.ACCEPT);
+            var bufferFactory = request.exchange().getResponse().bufferFactory();
+            if (APPLICATION_CBOR_SEQ.equalsTypeAndSubtype(mediaType)) {
+                // CBOR 编码器只能编码单个值，因此逐个任务编码，内存占用与表大小无关
+                Flux<DataBuffer> items = streamTasks().map(task -> cborEncoder.encodeValue(task, bufferFactory,
+                        TASK_LIST_ITEM_TYPE, MediaType.APPLICATION_CBOR, Map.of()));
+                return response.body(BodyInserters.fromDataBuffers(items));
+            }
+            if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType)) {
+                return response.body(BodyInserters.fromDataBuffers(
+                        writeArray(streamTasks(), cborEncoder.getObjectMapper(), bufferFactory)));
+            }
+            if (APPLICATION_SMILE.equalsTypeAndSubtype(mediaType)) {
+                return response.body(BodyInserters.fromDataBuffers(
+                        writeArray(streamTasks(), smileEncoder.getObjectMapper(), bufferFactory)));
+            }
+            return response.body(streamTasks(), TaskListItem.class);
+        });
+    }
+
+    /**
+     * 导出任务端点
+     * 默认输出 NDJSON，{@code ?format=csv} 时输出 CSV。
+     * 数据通过 R2DBC 按需读取，下游消费多少就读取多少，因此内存占用与表大小无关。
+     * 与任务列表端点一样支持条件请求。
+     */
+    public Mono<ServerResponse> exportTasks(ServerRequest request) {
+        if ("csv".equalsIgnoreCase(request.queryParam("format").orElse("ndjson"))) {
+            return ifModified(request, "csv", response -> {
+                Flux<String> lines = Flux.just(CSV_HEADER).concatWith(streamTasks().map(WebFluxHandler::toCsvLine));
+                return response
+                        .contentType(TEXT_CSV)
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks.csv\"")
+                        .body(lines, String.class);
+            });
+        }
+        return ifModified(request, "ndjson", response -> response
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(streamTasks(), TaskListItem.class));
+    }
+
+    /**
+     * 批量创建任务端点
+     * 请求体为任务数组，所有任务在同一个事务中以一条批量 INSERT 语句写入
+     */
+    public Mono<ServerResponse> createTasks(ServerRequest request) {
+        return request.bodyToFlux(NewTask.class)
+                .collectList()
+                .flatMap(tasks -> reactiveTaskService.createTasks(tasks).count())
+                .flatMap(created -> ServerResponse.ok().bodyValue(Map.of("created", created)));
+    }
+
+    /**
+     * 任务变更端点
+     * 以 Server-Sent Events 推送任务的创建事件，事件名为变更类型（例如 {@code created}），数据为任务本身。
+     * 每隔 {@code app.webflux.task-changes.keep-alive} 发送一个注释行，防止代理关闭空闲连接。
+     */
+    public Mono<ServerResponse> taskChanges(ServerRequest request) {
+        Flux<ServerSentEvent<TaskListItem>> changes = taskChangeStream.changes().map(WebFluxHandler::toServerSentEvent);
+        Flux<ServerSentEvent<TaskListItem>> keepAlive = Flux.interval(keepAliveInterval)
+                .map(i -> ServerSentEvent.<TaskListItem>builder().comment("keep-alive").build());
         return ServerResponse.ok()
-                .body(Flux.fromIterable(taskService.list(Pageable.unpaged())), Task.class);
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(Flux.merge(changes, keepAlive), new ParameterizedTypeReference<ServerSentEvent<TaskListItem>>() {
+                });
+    }
+
+    private static ServerSentEvent<TaskListItem> toServerSentEvent(TaskChangedEvent event) {
+        return ServerSentEvent.builder(event.task())
+                .id(String.valueOf(event.task().id()))
+                .event(event.type().name().toLowerCase(Locale.ROOT))
+                .build();
+    }
+
+    /**
+     * 处理任务列表的条件请求
+     * 版本标识只读取 {@code task_table_version} 表中的一行（插入任务的事务会递增其中的计数），不读取任何任务数据。
+     * 请求的 {@code If-None-Match} 或 {@code If-Modified-Since} 与当前版本一致时直接返回 304，
+     * 否则生成响应并带上 {@code ETag} 和 {@code Last-Modified}。
+     * 同一份数据的不同格式使用不同的 ETag。
+     */
+    private Mono<ServerResponse> ifModified(ServerRequest request, String format,
+            Function<ServerResponse.BodyBuilder, Mono<ServerResponse>> body) {
+        return reactiveTaskService.version().flatMap(version -> {
+            var etag = toETag(version, format);
+            return request.checkNotModified(etag, version.lastModified())
+                    .switchIfEmpty(Mono.defer(() -> body.apply(ServerResponse.ok()
+                            .eTag(etag)
+                            .lastModified(version.lastModified())
+                            .cacheControl(CacheControl.noCache()))));
+        });
+    }
+
+    /**
+     * 从 {@code producible} 中选出请求最想要的格式
+     * 按质量值从高到低匹配 {@code Accept} 中的格式，质量值相同时按出现顺序。
+     * 没有 {@code Accept} 时返回第一个格式，都不匹配时返回 {@code null}。
+     */
+    private static @Nullable MediaType negotiate(ServerRequest request, List<MediaType> producible) {
+        var accepted = new ArrayList<>(request.headers().accept());
+        if (accepted.isEmpty()) {
+            return producible.get(0);
+        }
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (var acceptedType : accepted) {
+            for (var mediaType : producible) {
+                if (acceptedType.getQualityValue() > 0 && acceptedType.includes(mediaType)) {
+                    return mediaType;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 用同一个生成器把任务写成一个数组值，每写完一个任务就输出已经生成的字节
+     * 整个响应体是一个完整的文档（CBOR 为不定长数组，Smile 的头部和共享名称引用对整个文档有效），
+     * 而内存占用与表大小无关。
+     */
+    private static Flux<DataBuffer> writeArray(Flux<TaskListItem> tasks, ObjectMapper mapper,
+            DataBufferFactory bufferFactory) {
+        return Flux.using(() -> new ArrayWriter(mapper),
+                writer -> Flux.concat(Mono.fromCallable(writer::start), tasks.map(writer::write),
+                        Mono.fromCallable(writer::end)).map(bufferFactory::wrap),
+                ArrayWriter::close);
+    }
+
+    private static String toETag(TaskTableVersion version, String format) {
+        return "\"tasks-" + format + "-" + version.version() + "\"";
+    }
+
+    private Flux<TaskListItem> streamTasks() {
+        return reactiveTaskService.streamAll();
+    }
+
+    private static String toCsvLine(TaskListItem task) {
+        return task.id() + "," + toCsvValue(task.description()) + ","
+                + (task.dueDate() == null ? "" : task.dueDate()) + "," + task.creationDate() + "\n";
+    }
+
+    private static String toCsvValue(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * 逐个写出数组元素的生成器，每次写入后返回新生成的字节
+     */
+    private static final class ArrayWriter {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        private final JsonGenerator generator;
+
+        ArrayWriter(ObjectMapper mapper) throws IOException {
+            this.generator = mapper.createGenerator(out);
+        }
+
+        byte[] start() throws IOException {
+            generator.writeStartArray();
+            return flush();
+        }
+
+        byte[] write(TaskListItem task) {
+            try {
+                generator.writeObject(task);
+                return flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        byte[] end() throws IOException {
+            generator.writeEndArray();
+            return flush();
+        }
+
+        void close() {
+            try {
+                generator.close();
+            } catch (IOException ex) {
+                // 只写入内存，不会失败
+            }
+        }
+
+        private byte[] flush() throws IOException {
+            generator.flush();
+            var bytes = out.toByteArray();
+            out.reset();
+            return bytes;
+        }
     }
 }
@@ -0,0 +1,154 @@
+package cc.fss.vaadin.webflux.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 阻塞操作调度器
+ * webflux 包中所有阻塞调用（例如 {@code Thread.sleep}、阻塞 I/O）都通过它执行，不会占用订阅它的线程。
+ * <p>
+ * 通过 {@code app.webflux.blocking.mode} 选择执行方式：
+ * <ul>
+ *   <li>{@code bounded-elastic}（默认）：专用的有界弹性线程池，最多 {@code max-concurrency} 个线程</li>
+ *   <li>{@code virtual}：每个任务一个虚拟线程，同时运行的任务数同样限制为 {@code max-concurrency}（需要 Java 21）</li>
+ * </ul>
+ * </p>
+ * <p>
+ * 最多有 {@code max-concurrency} 个任务同时运行，另有最多 {@code max-queued} 个任务排队。
+ * 超出时新任务立即以 {@link RejectedExecutionException} 失败，而不是无限排队；HTTP 接口把它映射为 503。
+ * 运行中和排队中的任务数以 {@code webflux.blocking.active} 和 {@code webflux.blocking.queued} 指标发布，
+ * 被拒绝的任务数以 {@code webflux.blocking.rejected} 指标发布。
+ * </p>
+ */
+@Component
+public class BlockingWorkScheduler implements DisposableBean {
+
+    /**
+     * 执行方式
+     */
+    public enum Mode {
+        BOUNDED_ELASTIC, VIRTUAL
+    }
+
+    private final Mode mode;
+
+    private final int capacity;
+
+    private final Scheduler scheduler;
+
+    private final Semaphore runPermits;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final Counter rejected;
+
+    public BlockingWorkScheduler(@Value("${app.webflux.blocking.mode:bounded-elastic}") String mode,
+            @Value("${app.webflux.blocking.max-concurrency:64}") int maxConcurrency,
+            @Value("${app.webflux.blocking.max-queued:1000}") int maxQueued, MeterRegistry meterRegistry) {
+        this.mode = Mode.valueOf(mode.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        this.capacity = maxConcurrency + maxQueued;
+        if (this.mode == Mode.VIRTUAL) {
+            // 虚拟线程不需要池化，用信号量限制同时运行的任务数；等待信号量的虚拟线程不占用平台线程
+            this.scheduler = Schedulers.fromExecutor(new VirtualThreadTaskExecutor("webflux-blocking-"));
+            this.runPermits = new Semaphore(maxConcurrency);
+        } else {
+            this.scheduler = Schedulers.newBoundedElastic(maxConcurrency, maxQueued, "webflux-blocking");
+            this.runPermits = null;
+        }
+
+        var modeTag = this.mode.name().toLowerCase(Locale.ROOT).replace('_', '-');
+        Gauge.builder("webflux.blocking.active", active, AtomicInteger::get)
+                .description("Blocking tasks currently running").tag("mode", modeTag).register(meterRegistry);
+        Gauge.builder("webflux.blocking.queued", queued, AtomicInteger::get)
+                .description("Blocking tasks waiting to run").tag("mode", modeTag).register(meterRegistry);
+        this.rejected = Counter.builder("webflux.blocking.rejected")
+                .description("Blocking tasks rejected because of overload").tag("mode", modeTag)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 在调度器上执行阻塞操作
+     *
+     * @param callable
+     *            阻塞操作
+     * @return 操作结果；调度器满载时以 {@link RejectedExecutionException} 失败
+     */
+    public <T> Mono<T> fromCallable(Callable<? extends T> callable) {
+        return Mono.defer(() -> {
+            if (inFlight.incrementAndGet() > capacity) {
+                inFlight.decrementAndGet();
+                rejected.increment();
+                return Mono.error(new RejectedExecutionException("Too many blocking tasks in " + mode + " mode"));
+            }
+            queued.incrementAndGet();
+            var dequeued = new AtomicBoolean();
+            return Mono.<T>fromCallable(() -> run(callable, dequeued))
+                    .subscribeOn(scheduler)
+                    .doFinally(signal -> {
+                        // 开始执行之前就被取消或失败时，任务仍计在排队数中
+                        dequeue(dequeued);
+                        inFlight.decrementAndGet();
+                    });
+        });
+    }
+
+    /**
+     * 在调度器上执行没有返回值的阻塞操作
+     *
+     * @param runnable
+     *            阻塞操作
+     * @return 操作完成时完成；调度器满载时以 {@link RejectedExecutionException} 失败
+     */
+    public Mono<Void> fromRunnable(Runnable runnable) {
+        return fromCallable(() -> {
+            runnable.run();
+            return Boolean.TRUE;
+        }).then();
+    }
+
+    private <T> T run(Callable<? extends T> callable, AtomicBoolean dequeued) throws Exception {
+        if (runPermits != null) {
+            runPermits.acquire();
+        }
+        dequeue(dequeued);
+        active.incrementAndGet();
+        try {
+            return callable.call();
+        } finally {
+            active.decrementAndGet();
+            if (runPermits != null) {
+                runPermits.release();
+            }
+        }
+    }
+
+    private void dequeue(AtomicBoolean dequeued) {
+        if (dequeued.compareAndSet(false, true)) {
+            queued.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+}
@@ -0,0 +1,58 @@
+package cc.fss.vaadin.webflux.service;
+
+import cc.fss.vaadin.taskmanagement.service.TaskChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+
+/**
+ * 任务变更流
+ * 所有订阅者共享同一个事件源：任务服务发布的 {@link TaskChangedEvent} 在事务提交后被推送给所有订阅者，
+ * 不需要任何订阅者轮询数据库。
+ * <p>
+ * 每个订阅者有自己的缓冲区，最多缓存 {@code app.webflux.task-changes.buffer-size} 个事件。
+ * 消费太慢的订阅者缓冲区满时丢弃最旧的事件，不会拖慢其他订阅者或发布事件的线程；
+ * 丢弃的事件数以 {@code webflux.task.changes.dropped} 指标发布。
+ * </p>
+ */
+@Component
+public class TaskChangeStream {
+
+    private final Sinks.Many<TaskChangedEvent> sink = Sinks.many().multicast().directBestEffort();
+
+    private final int bufferSize;
+
+    private final Counter dropped;
+
+    public TaskChangeStream(@Value("${app.webflux.task-changes.buffer-size:256}") int bufferSize,
+            MeterRegistry meterRegistry) {
+        this.bufferSize = bufferSize;
+        this.dropped = Counter.builder("webflux.task.changes.dropped")
+                .description("Task change events dropped for slow subscribers").register(meterRegistry);
+        Gauge.builder("webflux.task.changes.subscribers", sink, Sinks.Many::currentSubscriberCount)
+                .description("Subscribers of the task change stream").register(meterRegistry);
+    }
+
+    /**
+     * 订阅任务变更
+     * 只包含订阅之后提交的变更
+     */
+    public Flux<TaskChangedEvent> changes() {
+        return sink.asFlux()
+                .onBackpressureBuffer(bufferSize, event -> dropped.increment(), BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onTaskChanged(TaskChangedEvent event) {
+        // 多个线程可能同时提交事务，并发发布时短暂重试，而不是丢弃事件
+        sink.emitNext(event, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+    }
+}
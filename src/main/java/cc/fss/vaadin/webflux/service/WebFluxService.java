@@ -1,15 +1,18 @@
 package cc.fss.vaadin.webflux.service;
 
 import cc.fss.vaadin.taskmanagement.domain.Task;
-import cc.fss.vaadin.taskmanagement.service.TaskService;
-import org.springframework.data.domain.Pageable;
+import cc.fss.vaadin.taskmanagement.domain.TaskListItem;
+import cc.fss.vaadin.taskmanagement.service.ReactiveTaskService;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 
 import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * WebFlux服务类
@@ -18,25 +21,29 @@ import java.util.Map;
 @Service
 public class WebFluxService {
 
-    private final TaskService taskService;
+    private final ReactiveTaskService reactiveTaskService;
 
-    public WebFluxService(TaskService taskService) {
-        this.taskService = taskService;
+    private final BlockingWorkScheduler blockingWorkScheduler;
+
+    public WebFluxService(ReactiveTaskService reactiveTaskService, BlockingWorkScheduler blockingWorkScheduler) {
+        this.reactiveTaskService = reactiveTaskService;
+        this.blockingWorkScheduler = blockingWorkScheduler;
     }
 
     /**
      * 异步获取任务列表
+     * 通过 R2DBC 按需读取，不会一次性把整张表加载到内存，也不会阻塞线程
      */
-    public Flux<Task> getTasksAsync() {
-        return Mono.fromCallable(() -> taskService.list(Pageable.unpaged()))
-                .flatMapMany(Flux::fromIterable);
+    public Flux<TaskListItem> getTasksAsync() {
+        return reactiveTaskService.streamAll();
     }
 
     /**
      * 异步处理任务
+     * 阻塞的处理过程在 {@link BlockingWorkScheduler} 上执行
      */
     public Mono<Task> processTaskAsync(Task task) {
-        return Mono.fromCallable(() -> {
+        return blockingWorkScheduler.fromCallable(() -> {
             // 模拟异步处理
             try {
                 Thread.sleep(100);
@@ -62,9 +69,10 @@ public class WebFluxService {
 
     /**
      * 异步处理复杂数据
+     * 阻塞的处理过程在 {@link BlockingWorkScheduler} 上执行
      */
     public Mono<Map<String, Object>> processComplexData(Map<String, Object> data) {
-        return Mono.fromCallable(() -> {
+        return blockingWorkScheduler.fromCallable(() -> {
             // 模拟复杂的异步处理
             try {
                 Thread.sleep(200);
@@ -80,4 +88,40 @@ public class WebFluxService {
             );
         });
     }
+
+    /**
+     * 批量处理复杂数据
+     * 最多同时处理 {@code concurrency} 项，上游按处理进度逐步读取，不会一次性把所有数据读入内存。
+     * {@code ordered} 为 {@code true} 时按输入顺序输出结果（先完成的结果会等待前面的结果），
+     * 否则每项处理完成后立即输出。每个结果都带有输入的序号 {@code index}，以便在乱序时对应输入。
+     * 单项处理失败不会中断整个流，该项的结果为 {@code processed=false} 和错误信息。
+     *
+     * @param items
+     *            待处理的数据
+     * @param concurrency
+     *            最多同时处理的项数
+     * @param ordered
+     *            是否按输入顺序输出结果
+     * @return 处理结果
+     */
+    public Flux<Map<String, Object>> processComplexData(Flux<Map<String, Object>> items, int concurrency,
+            boolean ordered) {
+        Flux<Tuple2<Long, Map<String, Object>>> indexed = items.index();
+        Function<Tuple2<Long, Map<String, Object>>, Mono<Map<String, Object>>> process = item -> processComplexData(
+                item.getT2())
+                .map(result -> withIndex(item.getT1(), result))
+                .onErrorResume(ex -> Mono.just(withIndex(item.getT1(), Map.of(
+                        "processed", false,
+                        "input", item.getT2(),
+                        "error", String.valueOf(ex.getMessage())
+                ))));
+        return ordered ? indexed.flatMapSequential(process, concurrency) : indexed.flatMap(process, concurrency);
+    }
+
+    private static Map<String, Object> withIndex(long index, Map<String, Object> result) {
+        var indexed = new LinkedHashMap<String, Object>();
+        indexed.put("index", index);
+        indexed.putAll(result);
+        return indexed;
+    }
 }
@@ -6,6 +6,8 @@
  * 主要组件：
  * <ul>
  *   <li>{@link cc.fss.vaadin.webflux.service.WebFluxService} - WebFlux业务服务</li>
+ *   <li>{@link cc.fss.vaadin.webflux.service.BlockingWorkScheduler} - 阻塞操作调度器</li>
+ *   <li>{@link cc.fss.vaadin.webflux.service.TaskChangeStream} - 任务变更流</li>
  * </ul>
  */
 package cc.fss.vaadin.webflux.service;
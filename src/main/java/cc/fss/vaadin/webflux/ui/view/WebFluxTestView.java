@@ -32,9 +32,9 @@ public class WebFluxTestView extends VerticalLayout {
     private final TextArea resultArea;
     private final Div streamArea;
 
-    public WebFluxTestView(WebFluxService webFluxService) {
+    public WebFluxTestView(WebFluxService webFluxService, WebClient webClient) {
         this.webFluxService = webFluxService;
-        this.webClient = WebClient.create("http://localhost:8080");
+        this.webClient = webClient;
         this.resultArea = new TextArea("结果");
         this.streamArea = new Div();
 
@@ -0,0 +1,9 @@
+-- Ids of the AMQP messages that have already been processed, so that redeliveries can be dropped.
+-- Rows older than app.amqp.dedup.ttl are deleted periodically.
+CREATE TABLE processed_message (
+    message_id VARCHAR(64) PRIMARY KEY,
+    processed_at TIMESTAMP NOT NULL
+);
+
+-- Index for deleting expired rows
+CREATE INDEX idx_processed_message_processed_at ON processed_message(processed_at);
@@ -0,0 +1,10 @@
+-- Version of the task table, bumped by every transaction that inserts tasks. Conditional requests on the task list
+-- read this single row instead of the task table. last_modified is the latest creation date, or null without tasks.
+CREATE TABLE task_table_version (
+    id INT PRIMARY KEY,
+    version BIGINT NOT NULL,
+    last_modified TIMESTAMP
+);
+
+INSERT INTO task_table_version (id, version, last_modified)
+SELECT 1, 0, MAX(creation_date) FROM task;
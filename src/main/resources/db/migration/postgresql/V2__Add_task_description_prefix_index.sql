@@ -0,0 +1,3 @@
+-- Index for case-insensitive prefix searches on the description (lower(description) LIKE 'prefix%').
+-- text_pattern_ops makes the index usable for LIKE regardless of the database collation.
+CREATE INDEX idx_task_description_prefix ON task (lower(description) text_pattern_ops);
@@ -0,0 +1,3 @@
+-- Full-text search index on the description. Queries must use the exact same expression,
+-- to_tsvector('simple', description), for PostgreSQL to use the index.
+CREATE INDEX idx_task_description_fts ON task USING gin (to_tsvector('simple', description));
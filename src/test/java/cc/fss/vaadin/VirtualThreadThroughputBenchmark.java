@@ -0,0 +1,126 @@
+package cc.fss.vaadin;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the request throughput of the application on platform threads and on virtual threads, with requests that
+ * spend most of their time waiting for the database. Part of the benchmark profile:
+ * {@code ./mvnw -Pbenchmark verify -Dit.test=VirtualThreadThroughputBenchmark}.
+ * <p>
+ * Tomcat is limited to {@value #TOMCAT_MAX_THREADS} platform threads, while the connection pool has room for more
+ * concurrent queries, so with platform threads the request threads are the bottleneck.
+ * </p>
+ */
+class VirtualThreadThroughputBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadThroughputBenchmark.class);
+
+    private static final int TOMCAT_MAX_THREADS = 20;
+
+    private static final int CONNECTION_POOL_SIZE = 80;
+
+    private static final int REQUEST_COUNT = 800;
+
+    private static final String SLOW_PATH = "/api/load-test/slow";
+
+    @Test
+    public void platform_and_virtual_threads_with_slow_database_calls() throws Exception {
+        var platformRate = measureRequestsPerSecond(false);
+        var virtualRate = measureRequestsPerSecond(true);
+
+        logger.info("Platform threads: {} requests/s, virtual threads: {} requests/s", Math.round(platformRate),
+                Math.round(virtualRate));
+    }
+
+    private static double measureRequestsPerSecond(boolean virtualThreads) throws Exception {
+        try (var context = SpringApplication.from(Application::main)
+                .with(TestcontainersConfiguration.class, LoadTestConfiguration.class)
+                .run("--server.port=0", "--vaadin.launch-browser=false",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--server.tomcat.threads.max=" + TOMCAT_MAX_THREADS,
+                        "--spring.datasource.hikari.maximum-pool-size=" + CONNECTION_POOL_SIZE)
+                .getApplicationContext();
+                var client = HttpClient.newHttpClient();
+                var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + SLOW_PATH)).build();
+
+            // Warm up the connection pool and the JIT
+            send(client, executor, request, CONNECTION_POOL_SIZE);
+
+            var start = System.nanoTime();
+            send(client, executor, request, REQUEST_COUNT);
+            return REQUEST_COUNT / ((System.nanoTime() - start) / 1_000_000_000.0);
+        }
+    }
+
+    private static void send(HttpClient client, ExecutorService executor, HttpRequest request, int count) {
+        var responses = new ArrayList<CompletableFuture<Integer>>(count);
+        for (var i = 0; i < count; i++) {
+            responses.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }, executor));
+        }
+        responses.forEach(response -> assertThat(response.join()).isEqualTo(200));
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class LoadTestConfiguration {
+
+        @Bean
+        @Order(Ordered.HIGHEST_PRECEDENCE)
+        SecurityFilterChain loadTestSecurityFilterChain(HttpSecurity http) throws Exception {
+            return http.securityMatcher(SLOW_PATH).authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+                    .build();
+        }
+
+        @Bean
+        SlowController slowController(JdbcTemplate jdbcTemplate) {
+            return new SlowController(jdbcTemplate);
+        }
+    }
+
+    @RestController
+    static class SlowController {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        SlowController(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @GetMapping(SLOW_PATH)
+        String slow() {
+            jdbcTemplate.execute("select pg_sleep(0.05)");
+            return "ok";
+        }
+    }
+}
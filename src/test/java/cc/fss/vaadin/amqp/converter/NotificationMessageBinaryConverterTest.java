@@ -0,0 +1,40 @@
+package cc.fss.vaadin.amqp.converter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NotificationMessageBinaryConverterTest {
+
+    final NotificationMessageBinaryConverter converter = new NotificationMessageBinaryConverter(-1);
+
+    @Test
+    void string_lengths_beyond_the_body_are_rejected() {
+        // id present, length 2^31 - 1
+        var body = new byte[] { 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07 };
+        assertThatThrownBy(() -> converter.fromMessage(message(body))).isInstanceOf(MessageConversionException.class);
+    }
+
+    @Test
+    void negative_string_lengths_are_rejected() {
+        var body = new byte[] { 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F };
+        assertThatThrownBy(() -> converter.fromMessage(message(body))).isInstanceOf(MessageConversionException.class);
+    }
+
+    @Test
+    void variable_length_integers_longer_than_five_bytes_are_rejected() {
+        var body = new byte[] { 1, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01 };
+        assertThatThrownBy(() -> converter.fromMessage(message(body))).isInstanceOf(MessageConversionException.class);
+    }
+
+    private static Message message(byte[] body) {
+        var properties = new MessageProperties();
+        properties.setContentType(NotificationMessageBinaryConverter.CONTENT_TYPE);
+        properties.setHeader(NotificationMessageBinaryConverter.SCHEMA_VERSION_HEADER,
+                NotificationMessageBinaryConverter.SCHEMA_VERSION);
+        return new Message(body, properties);
+    }
+}
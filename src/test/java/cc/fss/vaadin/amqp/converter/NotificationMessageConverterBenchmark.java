@@ -0,0 +1,45 @@
+package cc.fss.vaadin.amqp.converter;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs the size and the per-message encoding and decoding time of each converter in
+ * {@link NotificationMessageConverterTest#converters()}. Run with
+ * {@code ./mvnw -Pbenchmark verify -Dit.test=NotificationMessageConverterBenchmark}.
+ */
+class NotificationMessageConverterBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationMessageConverterBenchmark.class);
+
+    private static final int ROUNDS = 20;
+
+    @Test
+    public void encode_and_decode_per_format() {
+        var messages = NotificationMessageConverterTest.realisticMessages();
+        for (var format : NotificationMessageConverterTest.converters().entrySet()) {
+            var converter = format.getValue();
+            // Warm up the JIT
+            for (var i = 0; i < ROUNDS / 2; i++) {
+                NotificationMessageConverterTest.decodeAll(converter,
+                        NotificationMessageConverterTest.encodeAll(converter, messages));
+            }
+            var encodeNanos = 0L;
+            var decodeNanos = 0L;
+            var bytesPerMessage = 0.0;
+            for (var i = 0; i < ROUNDS; i++) {
+                var start = System.nanoTime();
+                var encoded = NotificationMessageConverterTest.encodeAll(converter, messages);
+                var encodedAt = System.nanoTime();
+                NotificationMessageConverterTest.decodeAll(converter, encoded);
+                decodeNanos += System.nanoTime() - encodedAt;
+                encodeNanos += encodedAt - start;
+                bytesPerMessage = NotificationMessageConverterTest.bytesPerMessage(encoded);
+            }
+            var operations = (long) ROUNDS * messages.size();
+            logger.info("{}: {} bytes/message, {} ns encode, {} ns decode", format.getKey(),
+                    String.format("%.1f", bytesPerMessage), encodeNanos / operations, decodeNanos / operations);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package cc.fss.vaadin.amqp.converter;
+
+import cc.fss.vaadin.amqp.model.NotificationMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Round-trips notification messages through JSON, as sent before, and through the binary format of
+ * {@link NotificationMessageBinaryConverter}, and checks that {@link NotificationMessageConverter} still reads old
+ * JSON messages. {@link NotificationMessageConverterBenchmark} measures the same converters.
+ */
+class NotificationMessageConverterTest {
+
+    private static final int MESSAGE_COUNT = 10_000;
+
+    private static final String[] WORDS = { "order", "shipped", "payment", "received", "your", "account", "was",
+            "updated", "report", "ready", "the", "for", "with", "backup", "failed", "completed", "please", "review" };
+
+    @Test
+    public void binary_messages_are_smaller_than_json_and_both_can_be_read() {
+        var messages = realisticMessages();
+        var converters = converters();
+
+        var sizes = new LinkedHashMap<String, Double>();
+        for (Map.Entry<String, MessageConverter> format : converters.entrySet()) {
+            var encoded = encodeAll(format.getValue(), messages);
+            assertThat(decodeAll(format.getValue(), encoded)).usingRecursiveFieldByFieldElementComparator()
+                    .containsExactlyElementsOf(messages);
+            sizes.put(format.getKey(), bytesPerMessage(encoded));
+        }
+
+        // Messages sent as JSON before switching the format are still readable
+        var oldMessages = encodeAll(converters.get("json"), messages);
+        assertThat(decodeAll(converters.get("binary"), oldMessages)).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(messages);
+        assertThat(sizes.get("binary")).isLessThan(sizes.get("json"));
+        assertThat(sizes.get("binary+gzip")).isLessThanOrEqualTo(sizes.get("binary"));
+    }
+
+    static Map<String, MessageConverter> converters() {
+        var json = new Jackson2JsonMessageConverter();
+        // Listeners infer the type from the method parameter; here the type header is used, so it must be trusted
+        var typeMapper = new DefaultJackson2JavaTypeMapper();
+        typeMapper.setTrustedPackages(NotificationMessage.class.getPackageName());
+        json.setJavaTypeMapper(typeMapper);
+        var converters = new LinkedHashMap<String, MessageConverter>();
+        converters.put("json", json);
+        converters.put("binary", new NotificationMessageConverter(json, new NotificationMessageBinaryConverter(-1), true));
+        converters.put("binary+gzip",
+                new NotificationMessageConverter(json, new NotificationMessageBinaryConverter(256), true));
+        return converters;
+    }
+
+    static List<Message> encodeAll(MessageConverter converter, List<NotificationMessage> messages) {
+        return messages.stream().map(message -> converter.toMessage(message, new MessageProperties())).toList();
+    }
+
+    static List<Object> decodeAll(MessageConverter converter, List<Message> messages) {
+        return messages.stream().map(converter::fromMessage).toList();
+    }
+
+    static double bytesPerMessage(List<Message> messages) {
+        return messages.stream().mapToInt(message -> message.getBody().length).average().orElseThrow();
+    }
+
+    static List<NotificationMessage> realisticMessages() {
+        var random = new Random(42);
+        var types = List.of("INFO", "SUCCESS", "WARNING", "ERROR");
+        return IntStream.range(0, MESSAGE_COUNT).mapToObj(i -> {
+            var message = new NotificationMessage(new UUID(random.nextLong(), random.nextLong()).toString(),
+                    words(random, 2 + random.nextInt(4)), words(random, 5 + random.nextInt(i % 10 == 0 ? 200 : 20)),
+                    types.get(random.nextInt(types.size())), "user-" + random.nextInt(1000));
+            message.setCreatedAt(LocalDateTime.of(2025, 6, 1, 8, 0).plusSeconds(i * 37L).plusNanos(random.nextInt()
+                    & 0xFFFFF));
+            return message;
+        }).toList();
+    }
+
+    private static String words(Random random, int count) {
+        return IntStream.range(0, count).mapToObj(w -> WORDS[random.nextInt(WORDS.length)])
+                .collect(Collectors.joining(" "));
+    }
+}
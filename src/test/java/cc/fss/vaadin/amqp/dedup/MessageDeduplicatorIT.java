@@ -0,0 +1,106 @@
+package cc.fss.vaadin.amqp.dedup;
+
+import cc.fss.vaadin.TestcontainersConfiguration;
+import cc.fss.vaadin.amqp.model.NotificationMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@Transactional
+class MessageDeduplicatorIT {
+
+    @Autowired
+    MessageDeduplicator messageDeduplicator;
+
+    @Autowired
+    ProcessedMessageStore processedMessageStore;
+
+    @Autowired
+    Clock clock;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    public void redelivered_messages_are_dropped() {
+        var first = message(UUID.randomUUID().toString());
+        var second = message(UUID.randomUUID().toString());
+
+        assertThat(messageDeduplicator.dropDuplicates(List.of(first, second))).containsExactly(first, second);
+        assertThat(messageDeduplicator.dropDuplicates(List.of(message(second.getId()), first))).isEmpty();
+        assertThat(messageDeduplicator.isDuplicate(message(first.getId()))).isTrue();
+    }
+
+    @Test
+    public void duplicates_within_a_batch_are_processed_once() {
+        var id = UUID.randomUUID().toString();
+        var first = message(id);
+        var other = message(UUID.randomUUID().toString());
+
+        assertThat(messageDeduplicator.dropDuplicates(List.of(first, other, message(id)))).containsExactly(first, other);
+    }
+
+    @Test
+    public void messages_processed_by_another_instance_are_dropped() {
+        var message = message(UUID.randomUUID().toString());
+        assertThat(messageDeduplicator.isDuplicate(message)).isFalse();
+
+        // A second instance, or this one after a restart, has nothing in memory and finds the id in the database
+        var restarted = new MessageDeduplicator(processedMessageStore, clock, Duration.ofDays(7), 100,
+                new SimpleMeterRegistry());
+        assertThat(restarted.isDuplicate(message(message.getId()))).isTrue();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void messages_are_processed_again_after_a_failed_delivery() {
+        var message = message(UUID.randomUUID().toString());
+
+        // The listener claims the id and then its handler fails; the exception rolls the claim back
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            assertThat(messageDeduplicator.dropDuplicates(List.of(message))).containsExactly(message);
+            throw new IllegalStateException("Handler failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        var redelivered = message(message.getId());
+        assertThat(transactionTemplate.execute(status -> messageDeduplicator.dropDuplicates(List.of(redelivered))))
+                .containsExactly(redelivered);
+        assertThat(transactionTemplate.execute(status -> messageDeduplicator.isDuplicate(message(message.getId()))))
+                .isTrue();
+    }
+
+    @Test
+    public void messages_without_an_id_are_never_dropped() {
+        var message = message(null);
+        assertThat(messageDeduplicator.dropDuplicates(List.of(message, message))).containsExactly(message, message);
+    }
+
+    @Test
+    public void expired_ids_are_deleted() {
+        var id = UUID.randomUUID().toString();
+        processedMessageStore.claim(List.of(id), clock.instant().minus(Duration.ofDays(8)));
+
+        messageDeduplicator.deleteExpired();
+
+        assertThat(processedMessageStore.claim(List.of(id), clock.instant())).containsExactly(id);
+    }
+
+    private static NotificationMessage message(String id) {
+        return new NotificationMessage(id, "Title", "Message", "INFO", "user");
+    }
+}
@@ -0,0 +1,109 @@
+package cc.fss.vaadin.amqp.listener;
+
+import cc.fss.vaadin.TestcontainersConfiguration;
+import cc.fss.vaadin.amqp.model.NotificationMessage;
+import cc.fss.vaadin.config.AmqpConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.containers.RabbitMQContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK, properties = {
+        "app.amqp.notification-listener.concurrency=1",
+        "app.amqp.notification-listener.max-concurrency=1",
+        "app.amqp.notification-listener.prefetch=2",
+        "app.amqp.notification-listener.batch.size=5",
+        "app.amqp.notification-listener.batch.receive-timeout=2s" })
+class NotificationBatchListenerIT {
+
+    static final String QUEUE = "notification.batch.test.queue";
+
+    static final String LISTENER_ID = "notificationBatchTest";
+
+    @Autowired
+    RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    RabbitListenerEndpointRegistry rabbitListenerEndpointRegistry;
+
+    @Autowired
+    RecordingBatchListener recordingBatchListener;
+
+    @Test
+    public void messages_are_delivered_in_lists_of_up_to_the_batch_size() throws InterruptedException {
+        var sent = IntStream.range(0, 12).mapToObj(i -> new NotificationMessage(UUID.randomUUID().toString(),
+                "Title " + i, "Message", "INFO", "user")).toList();
+        sent.forEach(message -> rabbitTemplate.convertAndSend("", QUEUE, message));
+
+        // The consumer starts with all messages waiting in the queue
+        rabbitListenerEndpointRegistry.getListenerContainer(LISTENER_ID).start();
+        var batches = new ArrayList<List<NotificationMessage>>();
+        int received = 0;
+        while (received < sent.size()) {
+            var batch = recordingBatchListener.batches.poll(10, TimeUnit.SECONDS);
+            assertThat(batch).as("batch after %d messages", received).isNotNull();
+            batches.add(batch);
+            received += batch.size();
+        }
+
+        assertThat(batches).allSatisfy(batch -> assertThat(batch).hasSizeBetween(1, 5)
+                .hasOnlyElementsOfType(NotificationMessage.class));
+        // The prefetch of 2 is raised to the batch size; with a prefetch of 2 every batch would time out at 2 messages
+        assertThat(batches).extracting(List::size).startsWith(5, 5);
+        assertThat(batches.stream().flatMap(List::stream).map(NotificationMessage::getId))
+                .containsExactlyElementsOf(sent.stream().map(NotificationMessage::getId).toList());
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class BatchListenerConfiguration {
+
+        @Bean
+        @ServiceConnection
+        RabbitMQContainer rabbitMQContainer() {
+            return new RabbitMQContainer("rabbitmq:4-alpine");
+        }
+
+        @Bean
+        Queue notificationBatchTestQueue() {
+            return new Queue(QUEUE, false);
+        }
+
+        @Bean
+        RecordingBatchListener recordingBatchListener() {
+            return new RecordingBatchListener();
+        }
+    }
+
+    /**
+     * Records the lists delivered by the batch listener container factory.
+     */
+    static class RecordingBatchListener {
+
+        final BlockingQueue<List<NotificationMessage>> batches = new LinkedBlockingQueue<>();
+
+        @RabbitListener(id = LISTENER_ID, queues = QUEUE, autoStartup = "false",
+                containerFactory = AmqpConfig.NOTIFICATION_BATCH_LISTENER_CONTAINER_FACTORY)
+        public void receive(List<NotificationMessage> messages) {
+            batches.add(messages);
+        }
+    }
+}
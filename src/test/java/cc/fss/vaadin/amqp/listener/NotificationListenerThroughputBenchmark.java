@@ -0,0 +1,119 @@
+package cc.fss.vaadin.amqp.listener;
+
+import cc.fss.vaadin.amqp.model.NotificationMessage;
+import cc.fss.vaadin.config.AmqpConfig;
+import cc.fss.vaadin.config.AmqpConfig.NotificationListenerProperties;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.MessageListener;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.boot.autoconfigure.amqp.RabbitProperties;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.testcontainers.containers.RabbitMQContainer;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drains the notification queue once with a single default consumer and once with the consumers of
+ * {@link AmqpConfig#notificationListenerContainerFactory}, with a handler that takes a few milliseconds per message,
+ * and logs the rate of each. Needs Docker; start it with
+ * {@code ./mvnw -Pbenchmark verify -Dit.test=NotificationListenerThroughputBenchmark}.
+ */
+class NotificationListenerThroughputBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationListenerThroughputBenchmark.class);
+
+    private static final int MESSAGE_COUNT = 2_000;
+
+    private static final long HANDLER_MILLIS = 2;
+
+    static final RabbitMQContainer rabbitMQ = new RabbitMQContainer("rabbitmq:4-alpine");
+
+    static CachingConnectionFactory connectionFactory;
+
+    static RabbitTemplate rabbitTemplate;
+
+    @BeforeAll
+    static void startBroker() {
+        rabbitMQ.start();
+        connectionFactory = new CachingConnectionFactory(rabbitMQ.getHost(), rabbitMQ.getAmqpPort());
+        connectionFactory.setUsername(rabbitMQ.getAdminUsername());
+        connectionFactory.setPassword(rabbitMQ.getAdminPassword());
+        var amqpConfig = new AmqpConfig();
+        var admin = new RabbitAdmin(connectionFactory);
+        var queue = amqpConfig.notificationQueue();
+        var exchange = amqpConfig.notificationExchange();
+        admin.declareQueue(queue);
+        admin.declareExchange(exchange);
+        admin.declareBinding(amqpConfig.notificationBinding(queue, exchange));
+        rabbitTemplate = new RabbitTemplate(connectionFactory);
+        rabbitTemplate.setMessageConverter(new Jackson2JsonMessageConverter());
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        connectionFactory.destroy();
+        rabbitMQ.stop();
+    }
+
+    @Test
+    void single_and_tuned_consumers_drain_the_queue() throws Exception {
+        var defaultFactory = new SimpleRabbitListenerContainerFactory();
+        defaultFactory.setConnectionFactory(connectionFactory);
+        var platformFactory = tunedFactory(false);
+        var virtualFactory = tunedFactory(true);
+
+        var defaultRate = measureMessagesPerSecond(defaultFactory);
+        var platformRate = measureMessagesPerSecond(platformFactory);
+        var virtualRate = measureMessagesPerSecond(virtualFactory);
+
+        logger.info("Single consumer: {} messages/s, tuned consumers: {} messages/s, "
+                + "tuned consumers on virtual threads: {} messages/s", Math.round(defaultRate),
+                Math.round(platformRate), Math.round(virtualRate));
+    }
+
+    private static SimpleRabbitListenerContainerFactory tunedFactory(boolean virtualThreads) {
+        var configurer = new SimpleRabbitListenerContainerFactoryConfigurer(new RabbitProperties());
+        var properties = new NotificationListenerProperties(2, 8, 50, 10, Duration.ofMillis(200), virtualThreads,
+                new NotificationListenerProperties.Batch(false, 100, Duration.ofMillis(200)));
+        return new AmqpConfig().notificationListenerContainerFactory(configurer, connectionFactory, properties);
+    }
+
+    private static double measureMessagesPerSecond(SimpleRabbitListenerContainerFactory factory) throws Exception {
+        for (var i = 0; i < MESSAGE_COUNT; i++) {
+            rabbitTemplate.convertAndSend(AmqpConfig.NOTIFICATION_EXCHANGE, AmqpConfig.NOTIFICATION_ROUTING_KEY,
+                    new NotificationMessage(UUID.randomUUID().toString(), "title", "message", "INFO", "user"));
+        }
+        var received = new CountDownLatch(MESSAGE_COUNT);
+        var container = factory.createListenerContainer();
+        container.setQueueNames(AmqpConfig.NOTIFICATION_QUEUE);
+        container.setupMessageListener((MessageListener) message -> {
+            try {
+                Thread.sleep(HANDLER_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            received.countDown();
+        });
+        var start = System.nanoTime();
+        container.start();
+        try {
+            assertThat(received.await(2, TimeUnit.MINUTES)).isTrue();
+            return MESSAGE_COUNT / ((System.nanoTime() - start) / 1_000_000_000.0);
+        } finally {
+            container.stop();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package cc.fss.vaadin.amqp.service;
+
+import cc.fss.vaadin.amqp.model.NotificationMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NotificationPublisherTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private NotificationPublisher publisher;
+
+    @AfterEach
+    public void stop_publisher() {
+        if (publisher != null) {
+            publisher.stop();
+        }
+    }
+
+    @Test
+    public void acked_messages_complete_normally() {
+        publisher = start(10, Duration.ofSeconds(1), (message, correlationData) -> ack(correlationData));
+
+        assertThat(publisher.publish(message())).succeedsWithin(TIMEOUT);
+        assertThat(failed()).isZero();
+    }
+
+    @Test
+    public void nacked_messages_complete_exceptionally() {
+        publisher = start(10, Duration.ofSeconds(1), (message, correlationData) -> correlationData.getFuture()
+                .complete(new CorrelationData.Confirm(false, "queue limit reached")));
+
+        assertThat(publisher.publish(message())).failsWithin(TIMEOUT).withThrowableThat()
+                .havingCause().isInstanceOf(AmqpException.class).withMessageContaining("queue limit reached");
+        assertThat(failed()).isEqualTo(1);
+    }
+
+    @Test
+    public void returned_messages_complete_exceptionally_even_when_acked() {
+        publisher = start(10, Duration.ofSeconds(1), (message, correlationData) -> {
+            // The broker returns an unroutable mandatory message before it acks it
+            correlationData.setReturned(new ReturnedMessage(new Message(new byte[0], new MessageProperties()), 312,
+                    "NO_ROUTE", "notification.exchange", "notification.routing.key"));
+            ack(correlationData);
+        });
+
+        assertThat(publisher.publish(message())).failsWithin(TIMEOUT).withThrowableThat()
+                .havingCause().isInstanceOf(AmqpException.class).withMessageContaining("NO_ROUTE");
+        assertThat(failed()).isEqualTo(1);
+    }
+
+    @Test
+    public void stop_sends_the_queued_messages_before_returning() {
+        publisher = start(1000, Duration.ofSeconds(5), (message, correlationData) -> ack(correlationData));
+        var results = new ArrayList<CompletableFuture<Void>>();
+        for (int i = 0; i < 250; i++) {
+            results.add(publisher.publish(message()));
+        }
+
+        publisher.stop();
+
+        assertThat(results).allMatch(result -> result.isDone() && !result.isCompletedExceptionally());
+    }
+
+    @Test
+    public void stop_fails_the_messages_not_sent_within_the_shutdown_timeout() throws InterruptedException {
+        var sending = new CountDownLatch(1);
+        var broker = new CountDownLatch(1);
+        publisher = start(10, Duration.ofMillis(200), (message, correlationData) -> {
+            sending.countDown();
+            awaitUninterruptibly(broker);
+            ack(correlationData);
+        });
+        var first = publisher.publish(message());
+        assertThat(sending.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)).isTrue();
+        var queued = List.of(publisher.publish(message()), publisher.publish(message()));
+
+        long started = System.nanoTime();
+        publisher.stop();
+        broker.countDown();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(TIMEOUT);
+        assertThat(queued).allSatisfy(result -> assertThat(result).failsWithin(TIMEOUT).withThrowableThat()
+                .havingCause().isInstanceOf(RejectedExecutionException.class));
+        assertThat(first).succeedsWithin(TIMEOUT);
+        assertThat(failed()).isEqualTo(2);
+    }
+
+    @Test
+    public void messages_over_the_buffer_size_are_rejected_and_counted() throws InterruptedException {
+        var sending = new CountDownLatch(1);
+        var broker = new CountDownLatch(1);
+        publisher = start(1, Duration.ofSeconds(1), (message, correlationData) -> {
+            sending.countDown();
+            awaitUninterruptibly(broker);
+            ack(correlationData);
+        });
+        var first = publisher.publish(message());
+        assertThat(sending.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)).isTrue();
+        var queued = publisher.publish(message());
+
+        var rejected = List.of(publisher.publish(message()), publisher.publish(message()));
+
+        assertThat(rejected).allSatisfy(result -> assertThat(result).isCompletedExceptionally());
+        assertThat(meterRegistry.get("amqp.publisher.rejected").counter().count()).isEqualTo(2);
+        assertThat(failed()).isZero();
+        broker.countDown();
+        assertThat(first).succeedsWithin(TIMEOUT);
+        assertThat(queued).succeedsWithin(TIMEOUT);
+    }
+
+    @Test
+    public void messages_are_rejected_when_the_publisher_is_not_running() {
+        publisher = new NotificationPublisher(mock(RabbitTemplate.class), 10, 10, Duration.ofSeconds(1),
+                meterRegistry);
+
+        assertThat(publisher.publish(message())).isCompletedExceptionally();
+        assertThat(meterRegistry.get("amqp.publisher.rejected").counter().count()).isEqualTo(1);
+    }
+
+    /**
+     * Starts a publisher whose template hands every sent message to {@code broker}, which completes the correlation
+     * data the way the broker's confirms and returns would.
+     */
+    private NotificationPublisher start(int bufferSize, Duration shutdownTimeout,
+            BiConsumer<NotificationMessage, CorrelationData> broker) {
+        var operations = mock(RabbitOperations.class);
+        doAnswer(invocation -> {
+            broker.accept(invocation.getArgument(2), invocation.getArgument(3));
+            return null;
+        }).when(operations).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+        var rabbitTemplate = mock(RabbitTemplate.class);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation -> invocation
+                .<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(operations));
+        var started = new NotificationPublisher(rabbitTemplate, bufferSize, 100, shutdownTimeout, meterRegistry);
+        started.start();
+        return started;
+    }
+
+    private double failed() {
+        return meterRegistry.get("amqp.publisher.failed").counter().count();
+    }
+
+    private static void ack(CorrelationData correlationData) {
+        correlationData.getFuture().complete(new CorrelationData.Confirm(true, null));
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static NotificationMessage message() {
+        return new NotificationMessage(UUID.randomUUID().toString(), "Title", "Message", "INFO", "user");
+    }
+}
@@ -0,0 +1,86 @@
+package cc.fss.vaadin.base.concurrent;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void concurrent_calls_with_the_same_key_share_one_call() {
+        var result = Sinks.<String>one();
+        var first = singleFlight.execute("key", () -> call(result.asMono())).toFuture();
+        var second = singleFlight.execute("key", () -> call(Mono.just("other"))).toFuture();
+
+        result.tryEmitValue("value");
+
+        assertThat(first.join()).isEqualTo("value");
+        assertThat(second.join()).isEqualTo("value");
+        assertThat(calls).hasValue(1);
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    @Test
+    void calls_with_different_keys_are_not_shared() {
+        var result = Sinks.<String>one();
+        var first = singleFlight.execute("first", () -> call(result.asMono())).toFuture();
+        var second = singleFlight.execute("second", () -> call(Mono.just("other"))).block();
+
+        result.tryEmitValue("value");
+
+        assertThat(first.join()).isEqualTo("value");
+        assertThat(second).isEqualTo("other");
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void completed_calls_are_not_reused() {
+        assertThat(singleFlight.execute("key", () -> call(Mono.just("first"))).block()).isEqualTo("first");
+        assertThat(singleFlight.execute("key", () -> call(Mono.just("second"))).block()).isEqualTo("second");
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void errors_are_shared_and_not_cached() {
+        var result = Sinks.<String>one();
+        var first = singleFlight.execute("key", () -> call(result.asMono())).toFuture();
+        var second = singleFlight.execute("key", () -> call(Mono.just("other"))).toFuture();
+
+        result.tryEmitError(new IllegalStateException("failed"));
+
+        assertThat(first).isCompletedExceptionally();
+        assertThat(second).isCompletedExceptionally();
+        assertThatThrownBy(second::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(singleFlight.execute("key", () -> call(Mono.just("retried"))).block()).isEqualTo("retried");
+    }
+
+    @Test
+    void call_is_cancelled_when_all_subscribers_cancel() {
+        var cancelled = new AtomicInteger();
+        var never = Mono.<String>never().doOnCancel(cancelled::incrementAndGet);
+        var first = singleFlight.execute("key", () -> call(never)).subscribe();
+        var second = singleFlight.execute("key", () -> call(never)).subscribe();
+
+        first.dispose();
+        assertThat(cancelled).hasValue(0);
+        second.dispose();
+
+        assertThat(cancelled).hasValue(1);
+        assertThat(singleFlight.inFlight()).isZero();
+        assertThat(calls).hasValue(1);
+    }
+
+    private Mono<String> call(Mono<String> result) {
+        calls.incrementAndGet();
+        return result;
+    }
+}
@@ -0,0 +1,86 @@
+package cc.fss.vaadin.base.datasource;
+
+import cc.fss.vaadin.security.dev.SampleUsers;
+import cc.fss.vaadin.taskmanagement.domain.TaskListItem;
+import cc.fss.vaadin.taskmanagement.service.TaskFilter;
+import cc.fss.vaadin.taskmanagement.service.TaskService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against two independent PostgreSQL servers, one as the primary and one as the replica. As nothing is
+ * replicated between them, a task is only visible to reads that went to the database it was written to.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK, properties = {
+        "app.datasource.replica-routing.enabled=true", "spring.cache.type=none" })
+class ReplicaRoutingIT {
+
+    static final PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:17-alpine");
+
+    static final PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:17-alpine");
+
+    static {
+        primary.start();
+        replica.start();
+        // Flyway only migrates the primary
+        Flyway.configure().dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+                .locations("classpath:db/migration", "classpath:db/migration/postgresql").load().migrate();
+    }
+
+    @DynamicPropertySource
+    static void dataSourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("app.datasource.replica-routing.replicas[0].url", replica::getJdbcUrl);
+        registry.add("app.datasource.replica-routing.replicas[0].username", replica::getUsername);
+        registry.add("app.datasource.replica-routing.replicas[0].password", replica::getPassword);
+    }
+
+    @Autowired
+    TaskService taskService;
+
+    @Autowired
+    ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @AfterEach
+    void markReplicasHealthy() {
+        replicaRoutingDataSource.getReplicas().keySet()
+                .forEach(name -> replicaRoutingDataSource.markHealthy(name, true));
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void read_only_transactions_go_to_the_replica() {
+        var description = "Written to the primary " + UUID.randomUUID();
+        taskService.createTask(description, null);
+        assertThat(listDescriptions()).doesNotContain(description);
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void reads_fall_back_to_the_primary_without_healthy_replicas() {
+        var description = "Written to the primary " + UUID.randomUUID();
+        taskService.createTask(description, null);
+        replicaRoutingDataSource.getReplicas().keySet()
+                .forEach(name -> replicaRoutingDataSource.markHealthy(name, false));
+        assertThat(listDescriptions()).contains(description);
+    }
+
+    private List<String> listDescriptions() {
+        return taskService.list(TaskFilter.NONE, Pageable.unpaged()).stream().map(TaskListItem::description).toList();
+    }
+}
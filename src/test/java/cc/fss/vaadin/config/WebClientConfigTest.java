@@ -0,0 +1,95 @@
+package cc.fss.vaadin.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.web.reactive.function.client.ClientHttpConnectorAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.function.client.WebClientAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebClientConfigTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private DisposableServer server;
+
+    private ApplicationContextRunner contextRunner;
+
+    @BeforeEach
+    public void start_server() {
+        server = HttpServer.create().port(0)
+                .doOnConnection(connection -> connections.incrementAndGet())
+                .handle((request, response) -> response
+                        .sendString(Mono.just("ok").delayElement(Duration.ofMillis(100))))
+                .bindNow();
+        contextRunner = new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(ClientHttpConnectorAutoConfiguration.class,
+                        WebClientAutoConfiguration.class))
+                .withUserConfiguration(WebClientConfig.class)
+                .withPropertyValues("app.web-client.base-url=http://localhost:" + server.port());
+    }
+
+    @AfterEach
+    public void stop_server() {
+        server.disposeNow();
+    }
+
+    @Test
+    public void connection_provider_uses_the_configured_limits() {
+        contextRunner.withPropertyValues("app.web-client.max-connections=3").run(context -> {
+            var connectionProvider = context.getBean(ConnectionProvider.class);
+            assertThat(connectionProvider.maxConnections()).isEqualTo(3);
+        });
+    }
+
+    @Test
+    public void plain_http_falls_back_to_http_1_1_and_reuses_one_connection() {
+        contextRunner.run(context -> {
+            var webClient = context.getBean(WebClient.class);
+            for (int i = 0; i < 5; i++) {
+                assertThat(get(webClient).block(TIMEOUT)).isEqualTo("ok");
+            }
+            assertThat(connections.get()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    public void concurrent_requests_share_at_most_max_connections() {
+        contextRunner.withPropertyValues("app.web-client.max-connections=2").run(context -> {
+            var webClient = context.getBean(WebClient.class);
+            var responses = Flux.range(0, 8).flatMap(i -> get(webClient)).collectList().block(TIMEOUT);
+
+            assertThat(responses).hasSize(8).containsOnly("ok");
+            assertThat(connections.get()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    public void builders_from_spring_boot_use_the_shared_connection_pool() {
+        contextRunner.run(context -> {
+            var webClient = context.getBean(WebClient.Builder.class)
+                    .baseUrl("http://localhost:" + server.port()).build();
+            assertThat(get(context.getBean(WebClient.class)).block(TIMEOUT)).isEqualTo("ok");
+            assertThat(get(webClient).block(TIMEOUT)).isEqualTo("ok");
+            assertThat(connections.get()).isEqualTo(1);
+        });
+    }
+
+    private static Mono<String> get(WebClient webClient) {
+        return webClient.get().uri("/").retrieve().bodyToMono(String.class);
+    }
+}
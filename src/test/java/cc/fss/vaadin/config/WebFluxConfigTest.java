@@ -0,0 +1,49 @@
+package cc.fss.vaadin.config;
+
+import cc.fss.vaadin.security.CurrentUser;
+import cc.fss.vaadin.webflux.handler.RateLimitFilter;
+import cc.fss.vaadin.webflux.handler.RouteMetricsFilter;
+import cc.fss.vaadin.webflux.handler.WebFluxHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WebFluxConfigTest {
+
+    @Test
+    public void rejected_blocking_work_is_mapped_to_503_with_retry_after() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var webFluxHandler = mock(WebFluxHandler.class);
+        when(webFluxHandler.hello(any()))
+                .thenReturn(Mono.error(new RejectedExecutionException("Too many blocking tasks")));
+        var client = WebTestClient.bindToRouterFunction(new WebFluxConfig().webFluxRoutes(webFluxHandler,
+                new RateLimitFilter(mock(CurrentUser.class), 1000, 1000, meterRegistry),
+                new RouteMetricsFilter(meterRegistry))).build();
+
+        client.get().uri("/api/webflux/hello").exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "1");
+    }
+
+    @Test
+    public void other_errors_are_not_mapped_to_503() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var webFluxHandler = mock(WebFluxHandler.class);
+        when(webFluxHandler.hello(any())).thenReturn(Mono.error(new IllegalStateException("Broken")));
+        var client = WebTestClient.bindToRouterFunction(new WebFluxConfig().webFluxRoutes(webFluxHandler,
+                new RateLimitFilter(mock(CurrentUser.class), 1000, 1000, meterRegistry),
+                new RouteMetricsFilter(meterRegistry))).build();
+
+        client.get().uri("/api/webflux/hello").exchange()
+                .expectStatus().isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+}
@@ -0,0 +1,104 @@
+package cc.fss.vaadin.taskmanagement.service;
+
+import cc.fss.vaadin.TestcontainersConfiguration;
+import cc.fss.vaadin.security.dev.SampleUsers;
+import cc.fss.vaadin.taskmanagement.domain.Task;
+import cc.fss.vaadin.taskmanagement.domain.TaskListItem;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.test.context.support.WithUserDetails;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+class ReactiveTaskServiceIT {
+
+    @Autowired
+    ReactiveTaskService reactiveTaskService;
+
+    @Autowired
+    TaskService taskService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void deleteTasks() {
+        // Reactive transactions are not rolled back by the test framework
+        jdbcTemplate.update("delete from task");
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.USER_USERNAME)
+    public void created_tasks_are_streamed_in_creation_order() {
+        var newTasks = IntStream.range(0, 120).mapToObj(i -> new NewTask("Reactive " + i, null)).toList();
+        var created = reactiveTaskService.createTasks(newTasks).collectList().block();
+        assertThat(created).hasSize(120).extracting(TaskListItem::id).doesNotHaveDuplicates();
+
+        List<TaskListItem> streamed = reactiveTaskService.streamAll().collectList().block();
+        assertThat(streamed).containsExactlyElementsOf(created);
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.USER_USERNAME)
+    public void no_tasks_are_created_when_one_is_invalid() {
+        var newTasks = List.of(new NewTask("Valid", null),
+                new NewTask("X".repeat(Task.DESCRIPTION_MAX_LENGTH + 1), null));
+        assertThatThrownBy(() -> reactiveTaskService.createTasks(newTasks).blockLast())
+                .isInstanceOf(ValidationException.class);
+        assertThat(reactiveTaskService.streamAll().collectList().block()).isEmpty();
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.USER_USERNAME)
+    public void jpa_reads_the_same_creation_date() {
+        reactiveTaskService.createTasks(List.of(new NewTask("Reactive", null))).blockLast();
+        var streamed = reactiveTaskService.streamAll().blockFirst();
+        assertThat(taskService.list(PageRequest.of(0, 10))).singleElement()
+                .extracting(Task::getCreationDate).isEqualTo(streamed.creationDate());
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.USER_USERNAME)
+    public void version_changes_with_every_created_task() {
+        var before = reactiveTaskService.version().block();
+        reactiveTaskService.createTasks(List.of(new NewTask("Reactive", null))).blockLast();
+        var afterReactiveInsert = reactiveTaskService.version().block();
+        taskService.createTask("Blocking", null);
+        var afterJpaInsert = reactiveTaskService.version().block();
+
+        assertThat(afterReactiveInsert.version()).isGreaterThan(before.version());
+        assertThat(afterJpaInsert.version()).isGreaterThan(afterReactiveInsert.version());
+        assertThat(afterJpaInsert.lastModified()).isAfterOrEqualTo(afterReactiveInsert.lastModified());
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.USER_USERNAME)
+    public void version_does_not_change_when_no_task_is_created() {
+        var before = reactiveTaskService.version().block();
+        var newTasks = List.of(new NewTask("Valid", null), new NewTask("X".repeat(Task.DESCRIPTION_MAX_LENGTH + 1), null));
+        assertThatThrownBy(() -> reactiveTaskService.createTasks(newTasks).blockLast())
+                .isInstanceOf(ValidationException.class);
+        assertThat(reactiveTaskService.version().block()).isEqualTo(before);
+    }
+
+    @Test
+    public void anonymous_callers_cannot_list_or_create_tasks() {
+        assertThatThrownBy(() -> reactiveTaskService.streamAll().blockFirst())
+                .isInstanceOf(AccessDeniedException.class);
+        assertThatThrownBy(() -> reactiveTaskService.createTasks(List.of(new NewTask("Anonymous", null))).blockLast())
+                .isInstanceOf(AccessDeniedException.class);
+    }
+}
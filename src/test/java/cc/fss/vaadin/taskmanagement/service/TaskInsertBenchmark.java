@@ -0,0 +1,73 @@
+package cc.fss.vaadin.taskmanagement.service;
+
+import cc.fss.vaadin.TestcontainersConfiguration;
+import cc.fss.vaadin.security.dev.SampleUsers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithUserDetails;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the insert throughput of {@link TaskService#createTask} and {@link TaskService#createTasks} against
+ * PostgreSQL. Every call commits its own transaction, as it does in production. Run with
+ * {@code ./mvnw -Pbenchmark verify -Dit.test=TaskInsertBenchmark}.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+class TaskInsertBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskInsertBenchmark.class);
+
+    private static final int TASK_COUNT = 5_000;
+
+    @Autowired
+    TaskService taskService;
+
+    @Autowired
+    DataSource dataSource;
+
+    @AfterEach
+    void deleteTasks() {
+        new JdbcTemplate(dataSource).execute("truncate table task");
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.USER_USERNAME)
+    public void single_row_and_batched_inserts() {
+        // Warm up the connection pool, the sequence and the JIT
+        taskService.createTasks(newTasks(500));
+        IntStream.range(0, 500).forEach(i -> taskService.createTask("Warm-up " + i, null));
+
+        var singleRowStart = System.nanoTime();
+        IntStream.range(0, TASK_COUNT).forEach(i -> taskService.createTask("Single " + i, null));
+        var singleRowRate = insertsPerSecond(System.nanoTime() - singleRowStart);
+
+        var batchedStart = System.nanoTime();
+        taskService.createTasks(newTasks(TASK_COUNT));
+        var batchedRate = insertsPerSecond(System.nanoTime() - batchedStart);
+
+        logger.info("createTask: {} inserts/s, createTasks: {} inserts/s", Math.round(singleRowRate),
+                Math.round(batchedRate));
+        assertThat(new JdbcTemplate(dataSource).queryForObject("select count(*) from task", Long.class))
+                .isEqualTo(1_000L + 2 * TASK_COUNT);
+    }
+
+    private static List<NewTask> newTasks(int count) {
+        return IntStream.range(0, count).mapToObj(i -> new NewTask("Batched " + i, null)).toList();
+    }
+
+    private static double insertsPerSecond(long nanos) {
+        return TASK_COUNT / (nanos / 1_000_000_000.0);
+    }
+}
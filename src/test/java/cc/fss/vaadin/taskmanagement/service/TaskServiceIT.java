@@ -3,6 +3,7 @@ package cc.fss.vaadin.taskmanagement.service;
 import cc.fss.vaadin.TestcontainersConfiguration;
 import cc.fss.vaadin.security.dev.SampleUsers;
 import cc.fss.vaadin.taskmanagement.domain.Task;
+import cc.fss.vaadin.taskmanagement.domain.TaskListItem;
 import cc.fss.vaadin.taskmanagement.domain.TaskRepository;
 import jakarta.validation.ValidationException;
 import org.junit.jupiter.api.Test;
@@ -10,11 +11,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Clock;
 import java.time.LocalDate;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -22,6 +27,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 @Import(TestcontainersConfiguration.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
 @Transactional
+@RecordApplicationEvents
 class TaskServiceIT { // TODO Rename to TaskServiceTest to run it together with the unit tests.
 
     @Autowired
@@ -33,6 +39,9 @@ class TaskServiceIT { // TODO Rename to TaskServiceTest to run it together with
     @Autowired
     Clock clock;
 
+    @Autowired
+    ApplicationEvents applicationEvents;
+
     @Test
     @WithUserDetails(SampleUsers.USER_USERNAME)
     public void tasks_are_stored_in_the_database_with_the_current_timestamp() {
@@ -44,6 +53,111 @@ class TaskServiceIT { // TODO Rename to TaskServiceTest to run it together with
                         && task.getCreationDate().isAfter(now));
     }
 
+    @Test
+    @WithUserDetails(SampleUsers.USER_USERNAME)
+    public void tasks_can_be_paged_through_with_a_keyset() {
+        taskService.createTask("First", null);
+        taskService.createTask("Second", null);
+        taskService.createTask("Third", null);
+
+        var firstPage = taskService.listAfter(TaskFilter.NONE, Sort.Direction.ASC, null, 2);
+        assertThat(firstPage).extracting(TaskListItem::description).containsExactly("First", "Second");
+
+        var secondPage = taskService.listAfter(TaskFilter.NONE, Sort.Direction.ASC,
+                TaskKeyset.of(firstPage.get(1)), 2);
+        assertThat(secondPage).extracting(TaskListItem::description).containsExactly("Third");
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.USER_USERNAME)
+    public void keyset_listings_can_skip_ahead() {
+        taskService.createTask("First", null);
+        taskService.createTask("Second", null);
+        taskService.createTask("Third", null);
+
+        var second = taskService.seek(TaskFilter.NONE, Sort.Direction.ASC, null, 2, -1);
+        assertThat(taskService.listAfter(TaskFilter.NONE, Sort.Direction.ASC, second, 10))
+                .extracting(TaskListItem::description).containsExactly("Third");
+        var first = TaskKeyset.of(taskService.listAfter(TaskFilter.NONE, Sort.Direction.ASC, null, 1).get(0));
+        assertThat(taskService.seek(TaskFilter.NONE, Sort.Direction.DESC, second, 1, -1)).isEqualTo(first);
+        assertThat(taskService.seek(TaskFilter.NONE, Sort.Direction.ASC, second, 2, -1)).isNull();
+        // Knowing how many tasks follow, the target is found from the end
+        assertThat(taskService.seek(TaskFilter.NONE, Sort.Direction.ASC, null, 2, 3)).isEqualTo(second);
+        assertThat(taskService.seek(TaskFilter.NONE, Sort.Direction.ASC, first, 1, 2)).isEqualTo(second);
+        assertThat(taskService.seek(TaskFilter.NONE, Sort.Direction.ASC, second, 2, 1)).isNull();
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void long_seeks_are_split_into_bounded_offsets() {
+        var total = TaskService.MAX_SEEK_OFFSET + 5;
+        taskService.createTasks(IntStream.range(0, total).mapToObj(i -> new NewTask("Task " + i, null)).toList());
+
+        var forward = taskService.seek(TaskFilter.NONE, Sort.Direction.ASC, null, total - 2, -1);
+        var fromTheEnd = taskService.seek(TaskFilter.NONE, Sort.Direction.ASC, null, total - 2, total);
+        assertThat(forward).isNotNull().isEqualTo(fromTheEnd);
+        assertThat(taskService.listAfter(TaskFilter.NONE, Sort.Direction.ASC, forward, 10)).hasSize(2);
+        assertThat(taskService.seek(TaskFilter.NONE, Sort.Direction.ASC, null, total + 1, -1)).isNull();
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.USER_USERNAME)
+    public void tasks_are_filtered_and_sorted_in_the_database() {
+        taskService.createTask("Write report", LocalDate.of(2025, 3, 1));
+        taskService.createTask("write tests", LocalDate.of(2025, 1, 1));
+        taskService.createTask("Review 100%", LocalDate.of(2025, 2, 1));
+
+        var filter = new TaskFilter(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 3, 1), false, "WRITE");
+        assertThat(taskService.list(filter, PageRequest.of(0, 10, Sort.by("dueDate"))))
+                .extracting(TaskListItem::description).containsExactly("write tests", "Write report");
+
+        assertThat(taskService.list(new TaskFilter(null, null, false, "review 100%"), PageRequest.ofSize(10)))
+                .extracting(TaskListItem::description).containsExactly("Review 100%");
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.USER_USERNAME)
+    public void task_descriptions_can_be_searched() {
+        taskService.createTask("Prepare the quarterly report", null);
+        taskService.createTask("Report the bug in the login form", null);
+        taskService.createTask("Buy milk", null);
+
+        assertThat(taskService.search("report", PageRequest.ofSize(10))).extracting(TaskListItem::description)
+                .containsExactlyInAnyOrder("Prepare the quarterly report", "Report the bug in the login form");
+        assertThat(taskService.search("report -bug", PageRequest.ofSize(10))).extracting(TaskListItem::description)
+                .containsExactly("Prepare the quarterly report");
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.USER_USERNAME)
+    public void tasks_can_be_created_in_bulk() {
+        var newTasks = IntStream.range(0, 120).mapToObj(i -> new NewTask("Bulk " + i, null)).toList();
+        taskService.createTasks(newTasks);
+        assertThat(taskRepository.count()).isEqualTo(120);
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void created_tasks_are_published_as_events() {
+        taskService.createTask("Announced", null);
+        assertThat(applicationEvents.stream(TaskChangedEvent.class))
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.type()).isEqualTo(TaskChangedEvent.Type.CREATED);
+                    assertThat(event.task().description()).isEqualTo("Announced");
+                });
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.ADMIN_USERNAME)
+    public void small_task_counts_are_exact() {
+        var newTasks = IntStream.range(0, 30).mapToObj(i -> new NewTask((i % 3 == 0 ? "Fizz " : "Task ") + i, null))
+                .toList();
+        taskService.createTasks(newTasks);
+        assertThat(taskService.count(TaskFilter.NONE)).isEqualTo(TaskCount.exact(30));
+        assertThat(taskService.count(new TaskFilter(null, null, false, "fizz"))).isEqualTo(TaskCount.exact(10));
+    }
+
     @Test
     @WithUserDetails(SampleUsers.ADMIN_USERNAME)
     public void tasks_are_validated_before_they_are_stored() {
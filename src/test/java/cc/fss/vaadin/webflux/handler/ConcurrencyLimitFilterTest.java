@@ -0,0 +1,70 @@
+package cc.fss.vaadin.webflux.handler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, meterRegistry);
+
+    @Test
+    public void a_response_still_being_written_keeps_its_slot() {
+        // The chain of a streaming response completes only when the body has been written
+        var bodyWritten = Sinks.<Void>empty();
+        filter.filter(exchange("/api/webflux/tasks/changes"), exchange -> bodyWritten.asMono()).subscribe();
+        assertThat(inFlight()).isEqualTo(1);
+
+        var rejected = exchange("/api/webflux/tasks");
+        var handled = new AtomicBoolean();
+        filter.filter(rejected, exchange -> Mono.fromRunnable(() -> handled.set(true))).block();
+        assertThat(handled).isFalse();
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+        bodyWritten.tryEmitEmpty();
+        assertThat(inFlight()).isZero();
+        filter.filter(exchange("/api/webflux/tasks"), exchange -> Mono.fromRunnable(() -> handled.set(true))).block();
+        assertThat(handled).isTrue();
+    }
+
+    @Test
+    public void the_slot_is_released_on_error_and_cancel() {
+        filter.filter(exchange("/api/webflux/tasks"), exchange -> Mono.error(new IllegalStateException()))
+                .onErrorComplete().block();
+        assertThat(inFlight()).isZero();
+
+        var subscription = filter.filter(exchange("/api/webflux/tasks/changes"), exchange -> Mono.never()).subscribe();
+        assertThat(inFlight()).isEqualTo(1);
+        subscription.dispose();
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    public void other_paths_are_not_limited() {
+        filter.filter(exchange("/api/webflux/tasks/changes"), exchange -> Mono.never()).subscribe();
+        var handled = new AtomicBoolean();
+        filter.filter(exchange("/VAADIN/static/app.js"), exchange -> Mono.fromRunnable(() -> handled.set(true)))
+                .block();
+        assertThat(handled).isTrue();
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("webflux.rate.limit.in.flight").gauge().value();
+    }
+
+    private static MockServerWebExchange exchange(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
+}
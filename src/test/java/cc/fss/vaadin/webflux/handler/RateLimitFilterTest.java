@@ -0,0 +1,36 @@
+package cc.fss.vaadin.webflux.handler;
+
+import cc.fss.vaadin.security.CurrentUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+
+class RateLimitFilterTest {
+
+    @Test
+    public void requests_over_the_burst_get_429_with_retry_after() {
+        var meterRegistry = new SimpleMeterRegistry();
+        // One request every 10 seconds, no burst
+        var filter = new RateLimitFilter(Mockito.mock(CurrentUser.class), 0.1, 1, meterRegistry);
+        var client = WebTestClient.bindToRouterFunction(RouterFunctions
+                .route(GET("/api/webflux/hello"), request -> ServerResponse.ok().bodyValue("hello"))
+                .filter(filter)).build();
+
+        client.get().uri("/api/webflux/hello").exchange().expectStatus().isOk();
+        client.get().uri("/api/webflux/hello").exchange()
+                .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+                .expectHeader().value(HttpHeaders.RETRY_AFTER,
+                        retryAfter -> assertThat(Long.parseLong(retryAfter)).isBetween(1L, 10L));
+
+        assertThat(meterRegistry.get("webflux.rate.limit.rejected").tag("reason", "rate").counter().count())
+                .isEqualTo(1);
+    }
+}
@@ -0,0 +1,77 @@
+package cc.fss.vaadin.webflux.handler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.reactive.function.server.MockServerRequest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+
+class RouteMetricsFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final RouteMetricsFilter filter = new RouteMetricsFilter(meterRegistry);
+
+    private final WebTestClient client = WebTestClient.bindToRouterFunction(RouterFunctions
+            .route(GET("/api/webflux/tasks/{id}"), request -> ServerResponse.ok().bodyValue(request.pathVariable("id")))
+            .andRoute(GET("/api/webflux/missing"), request -> ServerResponse.notFound().build())
+            .andRoute(GET("/api/webflux/broken"), request -> Mono.error(new IllegalStateException("Broken")))
+            .filter(filter)).build();
+
+    @Test
+    public void requests_are_timed_per_route_pattern_and_status() {
+        client.get().uri("/api/webflux/tasks/1").exchange().expectStatus().isOk();
+        client.get().uri("/api/webflux/tasks/2").exchange().expectStatus().isOk();
+        client.get().uri("/api/webflux/missing").exchange().expectStatus().isNotFound();
+
+        assertThat(meterRegistry.get("webflux.route.requests").tags("method", "GET", "route", "/api/webflux/tasks/{id}",
+                "status", "200", "outcome", "SUCCESS", "exception", "none").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("webflux.route.requests").tags("route", "/api/webflux/missing",
+                "status", "404", "outcome", "CLIENT_ERROR").timer().count()).isEqualTo(1);
+        // The raw paths are never used as tags
+        assertThat(meterRegistry.find("webflux.route.requests").tag("route", "/api/webflux/tasks/1").timer()).isNull();
+        assertThat(inFlight("/api/webflux/tasks/{id}")).isZero();
+    }
+
+    @Test
+    public void failed_requests_are_timed_as_server_errors_and_leave_no_request_in_flight() {
+        client.get().uri("/api/webflux/broken").exchange().expectStatus().is5xxServerError();
+
+        assertThat(meterRegistry.get("webflux.route.requests").tags("route", "/api/webflux/broken",
+                "status", "500", "outcome", "SERVER_ERROR", "exception", "IllegalStateException").timer().count())
+                .isEqualTo(1);
+        assertThat(inFlight("/api/webflux/broken")).isZero();
+    }
+
+    @Test
+    public void cancelled_requests_leave_no_request_in_flight() {
+        var request = MockServerRequest.builder().method(HttpMethod.GET).uri(URI.create("/api/webflux/stream"))
+                .attribute(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE,
+                        PathPatternParser.defaultInstance.parse("/api/webflux/stream"))
+                .build();
+
+        StepVerifier.create(filter.filter(request, next -> Mono.never()))
+                .expectSubscription()
+                .then(() -> assertThat(inFlight("/api/webflux/stream")).isEqualTo(1))
+                .thenCancel()
+                .verify();
+
+        assertThat(inFlight("/api/webflux/stream")).isZero();
+        assertThat(meterRegistry.get("webflux.route.requests").tags("route", "/api/webflux/stream",
+                "status", "CANCELLED", "outcome", "UNKNOWN").timer().count()).isEqualTo(1);
+    }
+
+    private double inFlight(String route) {
+        return meterRegistry.get("webflux.route.in.flight").tag("route", route).gauge().value();
+    }
+}
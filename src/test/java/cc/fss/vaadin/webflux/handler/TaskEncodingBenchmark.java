@@ -0,0 +1,38 @@
+package cc.fss.vaadin.webflux.handler;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * Logs the encoding time and the plain and gzipped size of a task list per format. Run with
+ * {@code ./mvnw -Pbenchmark verify -Dit.test=TaskEncodingBenchmark}.
+ */
+class TaskEncodingBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskEncodingBenchmark.class);
+
+    private static final int ROUNDS = 50;
+
+    @Test
+    public void encode_task_list_per_format() throws IOException {
+        var tasks = TaskEncodingTest.realisticTasks();
+        for (var format : TaskEncodingTest.mappers().entrySet()) {
+            var mapper = format.getValue();
+            // Warm up the JIT
+            for (var i = 0; i < ROUNDS; i++) {
+                mapper.writeValueAsBytes(tasks);
+            }
+            var start = System.nanoTime();
+            byte[] encoded = null;
+            for (var i = 0; i < ROUNDS; i++) {
+                encoded = mapper.writeValueAsBytes(tasks);
+            }
+            var encodeMillis = (System.nanoTime() - start) / 1_000_000.0 / ROUNDS;
+            logger.info("{}: {} bytes, {} bytes gzipped, {} ms per encode", format.getKey(), encoded.length,
+                    TaskEncodingTest.gzip(encoded).length, String.format("%.2f", encodeMillis));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package cc.fss.vaadin.webflux.handler;
+
+import cc.fss.vaadin.taskmanagement.domain.TaskListItem;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the payload size of a task list in the formats offered by {@link WebFluxHandler#getTasks}. The encoding
+ * time is measured separately by {@link TaskEncodingBenchmark}.
+ */
+class TaskEncodingTest {
+
+    private static final int TASK_COUNT = 10_000;
+
+    private static final String[] WORDS = { "review", "deploy", "fix", "customer", "invoice", "report", "meeting",
+            "update", "database", "migration", "release", "notes", "backlog", "sprint", "design", "the", "for", "with" };
+
+    @Test
+    public void binary_formats_are_smaller_than_json() throws IOException {
+        var tasks = realisticTasks();
+        var json = mappers().get("json").writeValueAsBytes(tasks);
+        var cbor = mappers().get("cbor").writeValueAsBytes(tasks);
+        var smile = mappers().get("smile").writeValueAsBytes(tasks);
+
+        assertThat(cbor.length).isLessThan(json.length);
+        assertThat(smile.length).isLessThan(json.length);
+        assertThat(gzip(cbor).length).isLessThan(cbor.length);
+    }
+
+    static Map<String, ObjectMapper> mappers() {
+        var mappers = new LinkedHashMap<String, ObjectMapper>();
+        mappers.put("json", mapper(new JsonFactory()));
+        mappers.put("cbor", mapper(new CBORFactory()));
+        mappers.put("smile", mapper(new SmileFactory()));
+        return mappers;
+    }
+
+    private static ObjectMapper mapper(JsonFactory factory) {
+        // Dates as ISO strings, like the application's mappers
+        return Jackson2ObjectMapperBuilder.json().factory(factory)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    }
+
+    static List<TaskListItem> realisticTasks() {
+        var random = new Random(42);
+        var now = Instant.parse("2025-06-01T08:00:00Z");
+        return IntStream.range(0, TASK_COUNT).mapToObj(i -> {
+            var description = IntStream.range(0, 3 + random.nextInt(8))
+                    .mapToObj(w -> WORDS[random.nextInt(WORDS.length)]).collect(Collectors.joining(" "));
+            var dueDate = random.nextInt(3) == 0 ? null : LocalDate.of(2025, 6, 1).plusDays(random.nextInt(90));
+            return new TaskListItem(1000L + i, description, dueDate, now.plus(i * 37L, ChronoUnit.SECONDS));
+        }).toList();
+    }
+
+    static byte[] gzip(byte[] bytes) throws IOException {
+        var out = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
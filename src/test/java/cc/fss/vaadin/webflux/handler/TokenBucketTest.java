@@ -0,0 +1,65 @@
+package cc.fss.vaadin.webflux.handler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    public void a_full_bucket_lets_a_burst_through() {
+        var bucket = new TokenBucket(10, 5, 0);
+        for (var i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(0)).isZero();
+        }
+        // The next token is one emission interval away
+        assertThat(bucket.tryAcquire(0)).isEqualTo(SECOND / 10);
+    }
+
+    @Test
+    public void tokens_are_refilled_at_the_configured_rate() {
+        var bucket = new TokenBucket(10, 1, 0);
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(SECOND / 20)).isEqualTo(SECOND / 20);
+        assertThat(bucket.tryAcquire(SECOND / 10)).isZero();
+        // A long pause refills the bucket up to the burst size only
+        assertThat(bucket.tryAcquire(10 * SECOND)).isZero();
+        assertThat(bucket.tryAcquire(10 * SECOND)).isPositive();
+    }
+
+    @Test
+    public void concurrent_callers_share_the_burst_without_exceeding_it() throws InterruptedException {
+        var bucket = new TokenBucket(1, 100, 0);
+        var acquired = new AtomicInteger();
+        var threads = 8;
+        var start = new CountDownLatch(1);
+        var done = new CountDownLatch(threads);
+        try (var executor = Executors.newFixedThreadPool(threads)) {
+            for (var t = 0; t < threads; t++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                        for (var i = 0; i < 50; i++) {
+                            if (bucket.tryAcquire(0) == 0) {
+                                acquired.incrementAndGet();
+                            }
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            start.countDown();
+            done.await();
+        }
+        assertThat(acquired).hasValue(100);
+    }
+}
@@ -0,0 +1,141 @@
+package cc.fss.vaadin.webflux.handler;
+
+import cc.fss.vaadin.TestcontainersConfiguration;
+import cc.fss.vaadin.security.dev.SampleUsers;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockUser;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.springSecurity;
+
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        properties = "app.webflux.task-changes.keep-alive=200ms")
+class WebFluxHandlerIT {
+
+    @Autowired
+    RouterFunction<ServerResponse> webFluxRoutes;
+
+    @Autowired
+    UserDetailsService userDetailsService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    WebTestClient client;
+
+    @BeforeEach
+    void createClient() {
+        client = WebTestClient.bindToRouterFunction(webFluxRoutes).apply(springSecurity()).build()
+                .mutateWith(mockUser(userDetailsService.loadUserByUsername(SampleUsers.USER_USERNAME)));
+    }
+
+    @AfterEach
+    void deleteTasks() {
+        // Reactive transactions are not rolled back by the test framework
+        jdbcTemplate.update("delete from task");
+    }
+
+    @Test
+    public void task_list_is_not_modified_until_a_task_is_created() {
+        var etag = client.get().uri("/api/webflux/tasks").accept(MediaType.APPLICATION_JSON).exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseHeaders().getETag();
+        assertThat(etag).isNotNull();
+
+        client.get().uri("/api/webflux/tasks").accept(MediaType.APPLICATION_JSON).ifNoneMatch(etag).exchange()
+                .expectStatus().isNotModified();
+
+        createTasks("[{\"description\":\"Changed\"}]");
+
+        client.get().uri("/api/webflux/tasks").accept(MediaType.APPLICATION_JSON).ifNoneMatch(etag).exchange()
+                .expectStatus().isOk()
+                .expectHeader().value("ETag", newETag -> assertThat(newETag).isNotEqualTo(etag))
+                .expectBody().jsonPath("$[0].description").isEqualTo("Changed");
+    }
+
+    @Test
+    public void task_list_is_written_in_every_accepted_format() throws IOException {
+        createTasks("[{\"description\":\"First\"},{\"description\":\"Second\"}]");
+
+        client.get().uri("/api/webflux/tasks").accept(MediaType.APPLICATION_JSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody().jsonPath("$[*].description").isEqualTo(List.of("First", "Second"));
+
+        var cbor = getTasks(MediaType.APPLICATION_CBOR);
+        assertThat(descriptions(new ObjectMapper(new CBORFactory()).readTree(cbor))).containsExactly("First", "Second");
+
+        List<JsonNode> cborSequence = new ObjectMapper(new CBORFactory()).readerFor(JsonNode.class)
+                .<JsonNode>readValues(getTasks(WebFluxHandler.APPLICATION_CBOR_SEQ)).readAll();
+        assertThat(cborSequence).extracting(node -> node.get("description").asText())
+                .containsExactly("First", "Second");
+
+        var smile = getTasks(WebFluxHandler.APPLICATION_SMILE);
+        assertThat(descriptions(new ObjectMapper(new SmileFactory()).readTree(smile)))
+                .containsExactly("First", "Second");
+    }
+
+    @Test
+    public void task_list_is_not_acceptable_in_other_formats() {
+        client.get().uri("/api/webflux/tasks").accept(MediaType.APPLICATION_XML).exchange()
+                .expectStatus().isEqualTo(406);
+    }
+
+    @Test
+    public void task_changes_are_kept_alive_while_nothing_changes() {
+        var changes = client.get().uri("/api/webflux/tasks/changes").accept(MediaType.TEXT_EVENT_STREAM).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<String>>() {
+                }).getResponseBody();
+
+        StepVerifier.create(changes)
+                .assertNext(event -> assertThat(event.comment()).isEqualTo("keep-alive"))
+                .assertNext(event -> assertThat(event.comment()).isEqualTo("keep-alive"))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private void createTasks(String json) {
+        client.post().uri("/api/webflux/tasks/bulk").contentType(MediaType.APPLICATION_JSON).bodyValue(json).exchange()
+                .expectStatus().isOk();
+    }
+
+    private byte[] getTasks(MediaType mediaType) {
+        return client.get().uri("/api/webflux/tasks").accept(mediaType).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(mediaType)
+                .expectBody().returnResult().getResponseBodyContent();
+    }
+
+    private static List<String> descriptions(JsonNode array) {
+        assertThat(array.isArray()).isTrue();
+        var descriptions = new ArrayList<String>();
+        array.forEach(node -> descriptions.add(node.get("description").asText()));
+        return descriptions;
+    }
+}
@@ -0,0 +1,118 @@
+package cc.fss.vaadin.webflux.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlockingWorkSchedulerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BlockingWorkScheduler scheduler;
+
+    @AfterEach
+    public void dispose_scheduler() {
+        if (scheduler != null) {
+            scheduler.destroy();
+        }
+    }
+
+    @Test
+    public void bounded_elastic_mode_runs_on_the_dedicated_platform_threads() {
+        scheduler = new BlockingWorkScheduler("bounded-elastic", 2, 10, meterRegistry);
+
+        StepVerifier.create(scheduler.fromCallable(Thread::currentThread))
+                .assertNext(thread -> {
+                    assertThat(thread.isVirtual()).isFalse();
+                    assertThat(thread.getName()).startsWith("webflux-blocking");
+                })
+                .expectComplete()
+                .verify(TIMEOUT);
+        assertThat(meterRegistry.get("webflux.blocking.active").tag("mode", "bounded-elastic").gauge()).isNotNull();
+    }
+
+    @Test
+    public void virtual_mode_runs_on_virtual_threads() {
+        scheduler = new BlockingWorkScheduler(" VIRTUAL ", 2, 10, meterRegistry);
+
+        StepVerifier.create(scheduler.fromCallable(Thread::currentThread))
+                .assertNext(thread -> {
+                    assertThat(thread.isVirtual()).isTrue();
+                    assertThat(thread.getName()).startsWith("webflux-blocking-");
+                })
+                .expectComplete()
+                .verify(TIMEOUT);
+        assertThat(meterRegistry.get("webflux.blocking.active").tag("mode", "virtual").gauge()).isNotNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "bounded-elastic", "virtual" })
+    public void tasks_over_the_capacity_are_rejected(String mode) throws InterruptedException {
+        // Two tasks may run and one may wait, so the fourth is rejected
+        scheduler = new BlockingWorkScheduler(mode, 2, 1, meterRegistry);
+        var started = new CountDownLatch(2);
+        var release = new CountDownLatch(1);
+        var accepted = List.of(blockUntil(started, release), blockUntil(started, release),
+                blockUntil(started, release)).stream().map(Mono::toFuture).toList();
+        assertThat(started.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)).isTrue();
+
+        assertThat(gauge("webflux.blocking.active", mode)).isEqualTo(2);
+        assertThat(gauge("webflux.blocking.queued", mode)).isEqualTo(1);
+        StepVerifier.create(blockUntil(started, release))
+                .expectError(RejectedExecutionException.class)
+                .verify(TIMEOUT);
+        assertThat(meterRegistry.get("webflux.blocking.rejected").tag("mode", mode).counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(accepted).allSatisfy(result -> assertThat(result).succeedsWithin(TIMEOUT));
+        assertThat(gauge("webflux.blocking.active", mode)).isZero();
+        assertThat(gauge("webflux.blocking.queued", mode)).isZero();
+    }
+
+    @Test
+    public void tasks_cancelled_while_queued_release_their_capacity() throws InterruptedException {
+        // One task may run and one may wait
+        scheduler = new BlockingWorkScheduler("bounded-elastic", 1, 1, meterRegistry);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var running = blockUntil(started, release).toFuture();
+        assertThat(started.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)).isTrue();
+
+        scheduler.fromCallable(() -> "queued").subscribe().dispose();
+
+        assertThat(gauge("webflux.blocking.queued", "bounded-elastic")).isZero();
+        // Accepted and waiting for the running task rather than rejected
+        StepVerifier.create(scheduler.fromCallable(() -> "queued again").timeout(Duration.ofMillis(100)))
+                .expectError(TimeoutException.class)
+                .verify(TIMEOUT);
+        release.countDown();
+        assertThat(running).succeedsWithin(TIMEOUT);
+    }
+
+    private Mono<String> blockUntil(CountDownLatch started, CountDownLatch release) {
+        return scheduler.fromCallable(() -> {
+            started.countDown();
+            release.await();
+            return "done";
+        });
+    }
+
+    private double gauge(String name, String mode) {
+        return meterRegistry.get(name).tag("mode", mode).gauge().value();
+    }
+}
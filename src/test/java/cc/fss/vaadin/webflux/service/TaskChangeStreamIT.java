@@ -0,0 +1,60 @@
+package cc.fss.vaadin.webflux.service;
+
+import cc.fss.vaadin.TestcontainersConfiguration;
+import cc.fss.vaadin.security.dev.SampleUsers;
+import cc.fss.vaadin.taskmanagement.service.TaskChangedEvent;
+import cc.fss.vaadin.taskmanagement.service.TaskService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+class TaskChangeStreamIT {
+
+    @Autowired
+    TaskChangeStream taskChangeStream;
+
+    @Autowired
+    TaskService taskService;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void deleteTasks() {
+        jdbcTemplate.update("delete from task");
+    }
+
+    @Test
+    @WithUserDetails(SampleUsers.USER_USERNAME)
+    public void changes_of_rolled_back_transactions_are_not_emitted() {
+        StepVerifier.create(taskChangeStream.changes())
+                .then(() -> {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        taskService.createTask("Rolled back", null);
+                        status.setRollbackOnly();
+                    });
+                    transactionTemplate.executeWithoutResult(status -> taskService.createTask("Committed", null));
+                })
+                .assertNext(event -> {
+                    assertThat(event.type()).isEqualTo(TaskChangedEvent.Type.CREATED);
+                    assertThat(event.task().description()).isEqualTo("Committed");
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+}
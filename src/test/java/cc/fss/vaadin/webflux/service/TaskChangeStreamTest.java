@@ -0,0 +1,55 @@
+package cc.fss.vaadin.webflux.service;
+
+import cc.fss.vaadin.taskmanagement.domain.TaskListItem;
+import cc.fss.vaadin.taskmanagement.service.TaskChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskChangeStreamTest {
+
+    @Test
+    public void slow_subscribers_drop_their_oldest_events_without_blocking_others() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var taskChangeStream = new TaskChangeStream(2, meterRegistry);
+        var events = LongStream.rangeClosed(1, 5).mapToObj(TaskChangeStreamTest::created).toList();
+        var fast = new CopyOnWriteArrayList<TaskChangedEvent>();
+        var subscription = taskChangeStream.changes().subscribe(fast::add);
+
+        // The slow subscriber requests nothing until every event has been published
+        StepVerifier.create(taskChangeStream.changes(), 0)
+                .then(() -> events.forEach(taskChangeStream::onTaskChanged))
+                .then(() -> assertThat(fast).containsExactlyElementsOf(events))
+                .thenRequest(5)
+                .expectNext(events.get(3), events.get(4))
+                .thenCancel()
+                .verify();
+
+        subscription.dispose();
+        assertThat(meterRegistry.get("webflux.task.changes.dropped").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    public void subscribers_only_receive_events_published_after_they_subscribed() {
+        var taskChangeStream = new TaskChangeStream(16, new SimpleMeterRegistry());
+        taskChangeStream.onTaskChanged(created(1));
+
+        StepVerifier.create(taskChangeStream.changes())
+                .then(() -> List.of(created(2), created(3)).forEach(taskChangeStream::onTaskChanged))
+                .expectNext(created(2), created(3))
+                .thenCancel()
+                .verify();
+    }
+
+    private static TaskChangedEvent created(long id) {
+        return new TaskChangedEvent(TaskChangedEvent.Type.CREATED,
+                new TaskListItem(id, "Task " + id, null, Instant.EPOCH));
+    }
+}
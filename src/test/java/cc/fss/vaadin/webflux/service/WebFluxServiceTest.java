@@ -0,0 +1,97 @@
+package cc.fss.vaadin.webflux.service;
+
+import cc.fss.vaadin.taskmanagement.service.ReactiveTaskService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class WebFluxServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BlockingWorkScheduler blockingWorkScheduler;
+
+    @AfterEach
+    public void dispose_scheduler() {
+        blockingWorkScheduler.destroy();
+    }
+
+    @Test
+    public void no_more_than_concurrency_items_are_processed_at_a_time() {
+        var service = service(16, 100);
+        var maxActive = new AtomicInteger();
+        var sampler = Flux.interval(Duration.ofMillis(5))
+                .doOnNext(i -> maxActive.accumulateAndGet(active(), Math::max))
+                .subscribe();
+
+        StepVerifier.create(service.processComplexData(items(6), 2, false))
+                .expectNextCount(6)
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        sampler.dispose();
+        assertThat(maxActive.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void rejected_items_are_reported_as_not_processed_without_waiting_for_others() {
+        // One item runs and one waits, the others are rejected at once
+        var service = service(1, 1);
+
+        StepVerifier.create(service.processComplexData(items(4), 4, false))
+                .assertNext(result -> assertRejected(result, 2))
+                .assertNext(result -> assertRejected(result, 3))
+                .assertNext(result -> assertProcessed(result, 0))
+                .assertNext(result -> assertProcessed(result, 1))
+                .expectComplete()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    public void ordered_results_keep_the_input_order_when_later_items_finish_first() {
+        var service = service(1, 1);
+
+        StepVerifier.create(service.processComplexData(items(4), 4, true))
+                .assertNext(result -> assertProcessed(result, 0))
+                .assertNext(result -> assertProcessed(result, 1))
+                .assertNext(result -> assertRejected(result, 2))
+                .assertNext(result -> assertRejected(result, 3))
+                .expectComplete()
+                .verify(TIMEOUT);
+    }
+
+    private WebFluxService service(int maxConcurrency, int maxQueued) {
+        blockingWorkScheduler = new BlockingWorkScheduler("bounded-elastic", maxConcurrency, maxQueued, meterRegistry);
+        return new WebFluxService(mock(ReactiveTaskService.class), blockingWorkScheduler);
+    }
+
+    private int active() {
+        return (int) meterRegistry.get("webflux.blocking.active").gauge().value();
+    }
+
+    private static void assertProcessed(Map<String, Object> result, long index) {
+        assertThat(result).containsEntry("index", index).containsEntry("processed", true)
+                .containsEntry("input", Map.of("item", index));
+    }
+
+    private static void assertRejected(Map<String, Object> result, long index) {
+        assertThat(result).containsEntry("index", index).containsEntry("processed", false)
+                .containsEntry("input", Map.of("item", index));
+        assertThat(String.valueOf(result.get("error"))).contains("Too many blocking tasks");
+    }
+
+    private static Flux<Map<String, Object>> items(int count) {
+        return Flux.range(0, count).map(i -> Map.<String, Object>of("item", (long) i));
+    }
+}